@@ -1,6 +1,10 @@
 package com.elmorabit.recipes.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Properties specific to Recipes.
@@ -10,4 +14,376 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Search search = new Search();
+
+    private final Export export = new Export();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Listing listing = new Listing();
+
+    private final Cache cache = new Cache();
+
+    private final Audit audit = new Audit();
+
+    private final Users users = new Users();
+
+    private final Scheduling scheduling = new Scheduling();
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Users getUsers() {
+        return users;
+    }
+
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    public static class Search {
+
+        private boolean rebuildOnStartup = true;
+
+        private int rebuildBatchSize = 500;
+
+        public boolean isRebuildOnStartup() {
+            return rebuildOnStartup;
+        }
+
+        public void setRebuildOnStartup(boolean rebuildOnStartup) {
+            this.rebuildOnStartup = rebuildOnStartup;
+        }
+
+        public int getRebuildBatchSize() {
+            return rebuildBatchSize;
+        }
+
+        public void setRebuildBatchSize(int rebuildBatchSize) {
+            this.rebuildBatchSize = rebuildBatchSize;
+        }
+    }
+
+    public static class Export {
+
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class BulkImport {
+
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Listing {
+
+        private int maxPageSize = 100;
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    /**
+     * Sizing of the cache regions.
+     * <p>
+     * Regions belong to the reference data group (the authorities) or to the entities group (everything else, including the
+     * authorities of each user, which grow with the users), and {@link #getRegions() per-region} settings override the
+     * settings of their group. Settings left unset fall back to the group, then to {@code jhipster.cache.ehcache}.
+     */
+    public static class Cache {
+
+        private String diskPath;
+
+        private long refreshAheadSeconds = 60;
+
+        private long loadTimeoutSeconds = 10;
+
+        private final Region referenceData = new Region();
+
+        private final Region entities = new Region();
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public Cache() {
+            referenceData.setHeapEntries(100L);
+            referenceData.setTimeToLiveSeconds(86400L);
+        }
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public long getRefreshAheadSeconds() {
+            return refreshAheadSeconds;
+        }
+
+        public void setRefreshAheadSeconds(long refreshAheadSeconds) {
+            this.refreshAheadSeconds = refreshAheadSeconds;
+        }
+
+        public long getLoadTimeoutSeconds() {
+            return loadTimeoutSeconds;
+        }
+
+        public void setLoadTimeoutSeconds(long loadTimeoutSeconds) {
+            this.loadTimeoutSeconds = loadTimeoutSeconds;
+        }
+
+        public Region getReferenceData() {
+            return referenceData;
+        }
+
+        public Region getEntities() {
+            return entities;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Tiers and expiry of a cache region: the heap is bounded either by entries or by size, the off-heap and
+         * persistent disk tiers are only used when they are given a size.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private DataSize heapSize;
+
+            private DataSize offHeapSize;
+
+            private DataSize diskSize;
+
+            private Long timeToLiveSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public DataSize getDiskSize() {
+                return diskSize;
+            }
+
+            public void setDiskSize(DataSize diskSize) {
+                this.diskSize = diskSize;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    /**
+     * Asynchronous writing, purge and partitioning of the audit events.
+     */
+    public static class Audit {
+
+        private int queueCapacity = 10_000;
+
+        private int batchSize = 100;
+
+        private long flushIntervalMillis = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_RUNS;
+
+        private int purgeChunkSize = 1000;
+
+        private long purgePauseMillis = 100;
+
+        private int partitionDays = 7;
+
+        private int partitionsAhead = 4;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getPurgeChunkSize() {
+            return purgeChunkSize;
+        }
+
+        public void setPurgeChunkSize(int purgeChunkSize) {
+            this.purgeChunkSize = purgeChunkSize;
+        }
+
+        public long getPurgePauseMillis() {
+            return purgePauseMillis;
+        }
+
+        public void setPurgePauseMillis(long purgePauseMillis) {
+            this.purgePauseMillis = purgePauseMillis;
+        }
+
+        public int getPartitionDays() {
+            return partitionDays;
+        }
+
+        public void setPartitionDays(int partitionDays) {
+            this.partitionDays = partitionDays;
+        }
+
+        public int getPartitionsAhead() {
+            return partitionsAhead;
+        }
+
+        public void setPartitionsAhead(int partitionsAhead) {
+            this.partitionsAhead = partitionsAhead;
+        }
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        public enum OverflowPolicy {
+            /**
+             * Write the event in the calling thread, slowing the caller down until the queue drains.
+             */
+            CALLER_RUNS,
+            /**
+             * Discard the event.
+             */
+            DROP
+        }
+    }
+
+    /**
+     * Removal of the users who never activated their account.
+     */
+    public static class Users {
+
+        private int purgeBatchSize = 500;
+
+        public int getPurgeBatchSize() {
+            return purgeBatchSize;
+        }
+
+        public void setPurgeBatchSize(int purgeBatchSize) {
+            this.purgeBatchSize = purgeBatchSize;
+        }
+    }
+
+    /**
+     * Leases of the scheduled jobs, which run on a single node at a time.
+     */
+    public static class Scheduling {
+
+        private long lockLeaseSeconds = 3600;
+
+        private long lockMinHoldSeconds = 60;
+
+        public long getLockLeaseSeconds() {
+            return lockLeaseSeconds;
+        }
+
+        public void setLockLeaseSeconds(long lockLeaseSeconds) {
+            this.lockLeaseSeconds = lockLeaseSeconds;
+        }
+
+        public long getLockMinHoldSeconds() {
+            return lockMinHoldSeconds;
+        }
+
+        public void setLockMinHoldSeconds(long lockMinHoldSeconds) {
+            this.lockMinHoldSeconds = lockMinHoldSeconds;
+        }
+    }
 }
@@ -1,14 +1,27 @@
 package com.elmorabit.recipes.config;
 
+import java.io.File;
 import java.time.Duration;
 
+import org.ehcache.config.ResourcePools;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 
 import org.hibernate.cache.jcache.ConfigSettings;
 import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import com.elmorabit.recipes.config.cache.CacheRegionStatistics;
+import com.elmorabit.recipes.config.cache.CacheStatisticsEndpointWebExtension;
+import com.elmorabit.recipes.config.cache.EhcacheMeterBinderProvider;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
@@ -17,22 +30,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import io.github.jhipster.config.cache.PrefixedKeyGenerator;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.*;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.Caching;
 
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                .build());
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
     }
 
     @Bean
@@ -40,28 +52,136 @@ public class CacheConfiguration {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
+    /**
+     * Create the JCache manager, rather than letting Spring Boot create it, so that it can hold persistent disk tiers.
+     */
     @Bean
-    public JCacheManagerCustomizer cacheManagerCustomizer() {
-        return cm -> {
-            createCache(cm, com.elmorabit.recipes.repository.UserRepository.USERS_BY_LOGIN_CACHE);
-            createCache(cm, com.elmorabit.recipes.repository.UserRepository.USERS_BY_EMAIL_CACHE);
-            createCache(cm, com.elmorabit.recipes.domain.User.class.getName());
-            createCache(cm, com.elmorabit.recipes.domain.Authority.class.getName());
-            createCache(cm, com.elmorabit.recipes.domain.User.class.getName() + ".authorities");
-            createCache(cm, com.elmorabit.recipes.domain.Recipe.class.getName());
-            createCache(cm, com.elmorabit.recipes.domain.Recipe.class.getName() + ".ingredients");
-            createCache(cm, com.elmorabit.recipes.domain.Ingredient.class.getName());
-            createCache(cm, com.elmorabit.recipes.domain.Author.class.getName());
-            createCache(cm, com.elmorabit.recipes.domain.Author.class.getName() + ".recipes");
-            // jhipster-needle-ehcache-add-entry
-        };
-    }
-
-    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+    public javax.cache.CacheManager jCacheCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = getClass().getClassLoader();
+        DefaultConfiguration configuration = cacheProperties.getDiskPath() == null
+            ? new DefaultConfiguration(classLoader)
+            : new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskPath())));
+        javax.cache.CacheManager cm = provider.getCacheManager(provider.getDefaultURI(), configuration);
+
+        ApplicationProperties.Cache.Region referenceData = cacheProperties.getReferenceData();
+        ApplicationProperties.Cache.Region entities = cacheProperties.getEntities();
+        createCache(cm, com.elmorabit.recipes.repository.UserRepository.USERS_BY_LOGIN_CACHE, entities);
+        createCache(cm, com.elmorabit.recipes.repository.UserRepository.USERS_BY_EMAIL_CACHE, entities);
+        createCache(cm, com.elmorabit.recipes.domain.User.class.getName(), entities);
+        createCache(cm, com.elmorabit.recipes.domain.Authority.class.getName(), referenceData);
+        createCache(cm, com.elmorabit.recipes.domain.User.class.getName() + ".authorities", entities);
+        createCache(cm, com.elmorabit.recipes.domain.Recipe.class.getName(), entities);
+        createCache(cm, com.elmorabit.recipes.domain.Recipe.class.getName() + ".ingredients", entities);
+        createCache(cm, com.elmorabit.recipes.domain.Ingredient.class.getName(), entities);
+        createCache(cm, com.elmorabit.recipes.domain.Author.class.getName(), entities);
+        createCache(cm, com.elmorabit.recipes.domain.Author.class.getName() + ".recipes", entities);
+        createHeapCache(cm, com.elmorabit.recipes.service.cache.RecipePageCache.RECIPE_PAGES_CACHE, entities);
+        // jhipster-needle-ehcache-add-entry
+        return cm;
+    }
+
+    @Bean
+    public CacheRegionStatistics cacheRegionStatistics(javax.cache.CacheManager cacheManager) {
+        return new CacheRegionStatistics(cacheManager);
+    }
+
+    /**
+     * Bind every region to Micrometer from the Ehcache statistics, as the JCache statistics used by default are only
+     * published over JMX.
+     */
+    @Bean
+    public EhcacheMeterBinderProvider ehcacheMeterBinderProvider(CacheRegionStatistics cacheRegionStatistics) {
+        return new EhcacheMeterBinderProvider(cacheRegionStatistics);
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint(endpoint = CachesEndpoint.class)
+    public CacheStatisticsEndpointWebExtension cacheStatisticsEndpointWebExtension(CachesEndpoint cachesEndpoint,
+            javax.cache.CacheManager cacheManager, CacheRegionStatistics cacheRegionStatistics, MeterRegistry meterRegistry) {
+        return new CacheStatisticsEndpointWebExtension(cachesEndpoint, cacheManager, cacheRegionStatistics, meterRegistry);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, ApplicationProperties.Cache.Region group) {
+        createCache(cm, cacheName, group, false);
+    }
+
+    /**
+     * Create a region kept on the heap only, whatever the tiers of its group, for entries which must not outlive the
+     * application.
+     */
+    private void createHeapCache(javax.cache.CacheManager cm, String cacheName, ApplicationProperties.Cache.Region group) {
+        createCache(cm, cacheName, group, true);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, ApplicationProperties.Cache.Region group,
+            boolean heapOnly) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache == null) {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.Cache.Region region = cacheProperties.getRegions().get(cacheName);
+            ResourcePools pools = heapOnly ? heapResourcePools(region, group) : resourcePools(region, group);
+            cm.createCache(cacheName, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, pools)
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive(region, group)))
+                    .build()));
+        }
+    }
+
+    /**
+     * Build the tiers of a region, from its own settings, then the settings of its group, then the JHipster defaults.
+     *
+     * @param region the settings of the region, or {@code null} if it has none.
+     * @param group the settings of the group of the region.
+     */
+    ResourcePools resourcePools(ApplicationProperties.Cache.Region region, ApplicationProperties.Cache.Region group) {
+        ResourcePoolsBuilder pools = heap(region, group);
+        DataSize offHeapSize = region != null && region.getOffHeapSize() != null ? region.getOffHeapSize() : group.getOffHeapSize();
+        if (offHeapSize != null) {
+            pools = pools.offheap(offHeapSize.toBytes(), MemoryUnit.B);
         }
+        DataSize diskSize = region != null && region.getDiskSize() != null ? region.getDiskSize() : group.getDiskSize();
+        if (diskSize != null) {
+            if (cacheProperties.getDiskPath() == null) {
+                throw new IllegalStateException("application.cache.disk-path is required by the disk tiers of the cache regions");
+            }
+            pools = pools.disk(diskSize.toBytes(), MemoryUnit.B, true);
+        }
+        return pools.build();
+    }
+
+    /**
+     * Build the heap tier of a region only, ignoring the off-heap and disk tiers of the region and of its group.
+     *
+     * @param region the settings of the region, or {@code null} if it has none.
+     * @param group the settings of the group of the region.
+     */
+    ResourcePools heapResourcePools(ApplicationProperties.Cache.Region region, ApplicationProperties.Cache.Region group) {
+        return heap(region, group).build();
+    }
+
+    private ResourcePoolsBuilder heap(ApplicationProperties.Cache.Region region, ApplicationProperties.Cache.Region group) {
+        ApplicationProperties.Cache.Region heap = hasHeapBound(region) ? region : hasHeapBound(group) ? group : null;
+        if (heap == null) {
+            return ResourcePoolsBuilder.heap(ehcache.getMaxEntries());
+        } else if (heap.getHeapSize() != null) {
+            return ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heap.getHeapSize().toBytes(), MemoryUnit.B);
+        } else {
+            return ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heap.getHeapEntries(), EntryUnit.ENTRIES);
+        }
+    }
+
+    Duration timeToLive(ApplicationProperties.Cache.Region region, ApplicationProperties.Cache.Region group) {
+        if (region != null && region.getTimeToLiveSeconds() != null) {
+            return Duration.ofSeconds(region.getTimeToLiveSeconds());
+        }
+        if (group.getTimeToLiveSeconds() != null) {
+            return Duration.ofSeconds(group.getTimeToLiveSeconds());
+        }
+        return Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+    }
+
+    private static boolean hasHeapBound(ApplicationProperties.Cache.Region region) {
+        return region != null && (region.getHeapSize() != null || region.getHeapEntries() != null);
     }
 
     @Autowired(required = false)
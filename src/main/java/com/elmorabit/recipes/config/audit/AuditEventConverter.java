@@ -42,6 +42,19 @@ public class AuditEventConverter {
             persistentAuditEvent.getAuditEventType(), convertDataToObjects(persistentAuditEvent.getData()));
     }
 
+    /**
+     * Convert a {@link PersistentAuditEvent} to an {@link AuditEvent}, with data already loaded, so that its lazy
+     * {@link PersistentAuditEvent#getData() data} is not read.
+     *
+     * @param persistentAuditEvent the event to convert.
+     * @param data the data of the event, used as is by the converted event.
+     * @return the converted event.
+     */
+    public AuditEvent convertToAuditEvent(PersistentAuditEvent persistentAuditEvent, Map<String, Object> data) {
+        return new AuditEvent(persistentAuditEvent.getAuditEventDate(), persistentAuditEvent.getPrincipal(),
+            persistentAuditEvent.getAuditEventType(), data);
+    }
+
     /**
      * Internal conversion. This is needed to support the current SpringBoot actuator {@code AuditEventRepository} interface.
      *
@@ -0,0 +1,63 @@
+package com.elmorabit.recipes.config.cache;
+
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics of the cache regions, read from Ehcache itself so that they neither depend on the JCache statistics,
+ * which are only published over JMX, nor on the Hibernate statistics.
+ */
+public class CacheRegionStatistics {
+
+    /**
+     * The Ehcache tiers, from the authoritative one, which holds every entry of a region, to the fastest one.
+     */
+    private static final List<String> TIERS = Arrays.asList("Disk", "OffHeap", "OnHeap");
+
+    private final CacheManager cacheManager;
+
+    private final Map<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+    public CacheRegionStatistics(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the statistics of a region.
+     *
+     * @param cacheName the name of the region.
+     * @return the statistics of the region, or {@code null} if there is no such region.
+     */
+    public CacheStatistics get(String cacheName) {
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        return statistics.computeIfAbsent(cacheName, name -> new DefaultCacheStatistics(cache.unwrap(InternalCache.class)));
+    }
+
+    /**
+     * Get the number of entries of a region, which is the number of mappings of its authoritative tier.
+     *
+     * @param statistics the statistics of the region.
+     * @return the number of entries, or {@code null} if the region has no known tier.
+     */
+    public static Long size(CacheStatistics statistics) {
+        Map<String, TierStatistics> tiers = statistics.getTierStatistics();
+        for (String tier : TIERS) {
+            if (tiers.containsKey(tier)) {
+                return tiers.get(tier).getMappings();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,158 @@
+package com.elmorabit.recipes.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpointWebExtension;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+
+import javax.cache.CacheManager;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Web extension of the {@code caches} endpoint, listing the statistics of every cache region.
+ * <p>
+ * A single region is still read with {@code GET /management/caches/{cache}}, evicted with
+ * {@code DELETE /management/caches/{cache}}, and every region is evicted with {@code DELETE /management/caches}.
+ */
+@EndpointWebExtension(endpoint = CachesEndpoint.class)
+public class CacheStatisticsEndpointWebExtension extends CachesEndpointWebExtension {
+
+    private final CacheManager cacheManager;
+
+    private final CacheRegionStatistics cacheRegionStatistics;
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheStatisticsEndpointWebExtension(CachesEndpoint delegate, CacheManager cacheManager,
+            CacheRegionStatistics cacheRegionStatistics, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.cacheManager = cacheManager;
+        this.cacheRegionStatistics = cacheRegionStatistics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public CachesStatisticsReport caches() {
+        SortedMap<String, RegionStatistics> caches = new TreeMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            CacheStatistics statistics = cacheRegionStatistics.get(cacheName);
+            if (statistics != null) {
+                Timer latency = meterRegistry.find(EhcacheMetrics.GET_LATENCY).tag("cache", cacheName).timer();
+                caches.put(cacheName, new RegionStatistics(statistics, latency));
+            }
+        }
+        return new CachesStatisticsReport(caches);
+    }
+
+    /**
+     * Description of the statistics of the cache regions.
+     */
+    public static final class CachesStatisticsReport {
+
+        private final Map<String, RegionStatistics> caches;
+
+        private CachesStatisticsReport(Map<String, RegionStatistics> caches) {
+            this.caches = caches;
+        }
+
+        public Map<String, RegionStatistics> getCaches() {
+            return caches;
+        }
+    }
+
+    /**
+     * Description of the statistics of a cache region, the latencies are in microseconds.
+     */
+    public static final class RegionStatistics {
+
+        private final long hits;
+
+        private final long misses;
+
+        private final float hitRatio;
+
+        private final long puts;
+
+        private final long removals;
+
+        private final long evictions;
+
+        private final long expirations;
+
+        private final Long size;
+
+        private final SortedMap<String, Long> tiers = new TreeMap<>();
+
+        private final Double meanGetLatency;
+
+        private final Double maxGetLatency;
+
+        private RegionStatistics(CacheStatistics statistics, Timer latency) {
+            this.hits = statistics.getCacheHits();
+            this.misses = statistics.getCacheMisses();
+            this.hitRatio = statistics.getCacheGets() == 0 ? 0 : statistics.getCacheHitPercentage() / 100;
+            this.puts = statistics.getCachePuts();
+            this.removals = statistics.getCacheRemovals();
+            this.evictions = statistics.getCacheEvictions();
+            this.expirations = statistics.getCacheExpirations();
+            this.size = CacheRegionStatistics.size(statistics);
+            for (Map.Entry<String, TierStatistics> tier : statistics.getTierStatistics().entrySet()) {
+                tiers.put(tier.getKey(), tier.getValue().getMappings());
+            }
+            this.meanGetLatency = latency == null ? null : latency.mean(TimeUnit.MICROSECONDS);
+            this.maxGetLatency = latency == null ? null : latency.max(TimeUnit.MICROSECONDS);
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public float getHitRatio() {
+            return hitRatio;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getRemovals() {
+            return removals;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public Long getSize() {
+            return size;
+        }
+
+        public SortedMap<String, Long> getTiers() {
+            return tiers;
+        }
+
+        public Double getMeanGetLatency() {
+            return meanGetLatency;
+        }
+
+        public Double getMaxGetLatency() {
+            return maxGetLatency;
+        }
+    }
+}
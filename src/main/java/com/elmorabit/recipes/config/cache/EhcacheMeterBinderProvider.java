@@ -0,0 +1,33 @@
+package com.elmorabit.recipes.config.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.ehcache.core.statistics.CacheStatistics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.core.Ordered;
+
+/**
+ * Provides the {@link EhcacheMetrics} of the JCache caches backed by Ehcache, taking precedence over the JCache
+ * binder of Spring Boot.
+ */
+public class EhcacheMeterBinderProvider implements CacheMeterBinderProvider<JCacheCache>, Ordered {
+
+    private final CacheRegionStatistics cacheRegionStatistics;
+
+    public EhcacheMeterBinderProvider(CacheRegionStatistics cacheRegionStatistics) {
+        this.cacheRegionStatistics = cacheRegionStatistics;
+    }
+
+    @Override
+    public MeterBinder getMeterBinder(JCacheCache cache, Iterable<Tag> tags) {
+        CacheStatistics statistics = cacheRegionStatistics.get(cache.getName());
+        return statistics == null ? null : new EhcacheMetrics(cache.getNativeCache(), cache.getName(), tags, statistics);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.elmorabit.recipes.config.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import org.ehcache.core.statistics.CacheOperationOutcomes.GetOutcome;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.ChainedOperationObserver;
+import org.ehcache.core.statistics.TierStatistics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds the statistics of an Ehcache region to Micrometer.
+ * <p>
+ * Besides the common cache meters, it publishes the removals, the expirations, the entries of each tier and the latency
+ * of the reads.
+ */
+public class EhcacheMetrics extends CacheMeterBinder {
+
+    public static final String GET_LATENCY = "cache.gets.latency";
+
+    private final CacheStatistics statistics;
+
+    public EhcacheMetrics(Object cache, String cacheName, Iterable<Tag> tags, CacheStatistics statistics) {
+        super(cache, cacheName, tags);
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected Long size() {
+        return CacheRegionStatistics.size(statistics);
+    }
+
+    @Override
+    protected long hitCount() {
+        return statistics.getCacheHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return statistics.getCacheMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return statistics.getCacheEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return statistics.getCachePuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.removals", statistics, CacheStatistics::getCacheRemovals)
+            .tags(getTagsWithCacheName())
+            .description("The number of entries removed from the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.expirations", statistics, CacheStatistics::getCacheExpirations)
+            .tags(getTagsWithCacheName())
+            .description("The number of entries expired from the cache")
+            .register(registry);
+        for (Map.Entry<String, TierStatistics> tier : statistics.getTierStatistics().entrySet()) {
+            Gauge.builder("cache.tier.size", tier.getValue(), TierStatistics::getMappings)
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier.getKey())
+                .description("The number of entries in a tier of the cache")
+                .register(registry);
+        }
+
+        Timer latency = Timer.builder(GET_LATENCY)
+            .tags(getTagsWithCacheName())
+            .description("The latency of the reads of the cache, hits and misses alike")
+            .register(registry);
+        statistics.registerDerivedStatistic(GetOutcome.class, "get", new ChainedOperationObserver<GetOutcome>() {
+
+            @Override
+            public void begin(long time) {
+            }
+
+            @Override
+            public void end(long time, long nanos, GetOutcome result) {
+                latency.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+}
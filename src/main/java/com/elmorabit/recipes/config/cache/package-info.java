@@ -0,0 +1,4 @@
+/**
+ * Cache statistics specific code.
+ */
+package com.elmorabit.recipes.config.cache;
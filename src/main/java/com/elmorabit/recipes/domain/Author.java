@@ -1,13 +1,16 @@
 package com.elmorabit.recipes.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * A Author.
@@ -20,7 +23,9 @@ public class Author implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "authorIdGenerator")
+    @TableGenerator(name = "authorIdGenerator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "author", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
@@ -33,6 +38,24 @@ public class Author implements Serializable {
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Recipe> recipes = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    /**
+     * Date of the last change of the author, sent as the {@code Last-Modified} header of its representations.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified_date")
+    private Instant lastModifiedDate;
+
+    /**
+     * Identity of the author, assigned once when it is created so that its hash code does not change when it is persisted.
+     */
+    @JsonIgnore
+    @Column(name = "uuid", length = 36, nullable = false, unique = true, updatable = false)
+    private String uuid;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -92,6 +115,44 @@ public class Author implements Serializable {
     public void setRecipes(Set<Recipe> recipes) {
         this.recipes = recipes;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public String getUuid() {
+        if (uuid == null) {
+            uuid = UUID.randomUUID().toString();
+        }
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    @PrePersist
+    private void onCreate() {
+        getUuid();
+        lastModifiedDate = Instant.now();
+    }
+
+    @PreUpdate
+    private void onUpdate() {
+        lastModifiedDate = Instant.now();
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -102,12 +163,12 @@ public class Author implements Serializable {
         if (!(o instanceof Author)) {
             return false;
         }
-        return id != null && id.equals(((Author) o).id);
+        return getUuid().equals(((Author) o).getUuid());
     }
 
     @Override
     public int hashCode() {
-        return 31;
+        return getUuid().hashCode();
     }
 
     // prettier-ignore
@@ -117,6 +178,7 @@ public class Author implements Serializable {
             "id=" + getId() +
             ", name='" + getName() + "'" +
             ", website='" + getWebsite() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
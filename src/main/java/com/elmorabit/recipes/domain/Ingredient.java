@@ -1,5 +1,6 @@
 package com.elmorabit.recipes.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
@@ -7,6 +8,8 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
 
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
 
 /**
  * A Ingredient.
@@ -19,7 +22,9 @@ public class Ingredient implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ingredientIdGenerator")
+    @TableGenerator(name = "ingredientIdGenerator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "ingredient", allocationSize = 50)
     private Long id;
 
     @Column(name = "quantity")
@@ -35,6 +40,24 @@ public class Ingredient implements Serializable {
     @JsonIgnoreProperties(value = "ingredients", allowSetters = true)
     private Recipe recipe;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    /**
+     * Date of the last change of the ingredient, sent as the {@code Last-Modified} header of its representations.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified_date")
+    private Instant lastModifiedDate;
+
+    /**
+     * Identity of the ingredient, assigned once when it is created so that its hash code does not change when it is persisted.
+     */
+    @JsonIgnore
+    @Column(name = "uuid", length = 36, nullable = false, unique = true, updatable = false)
+    private String uuid;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -95,6 +118,44 @@ public class Ingredient implements Serializable {
     public void setRecipe(Recipe recipe) {
         this.recipe = recipe;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public String getUuid() {
+        if (uuid == null) {
+            uuid = UUID.randomUUID().toString();
+        }
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    @PrePersist
+    private void onCreate() {
+        getUuid();
+        lastModifiedDate = Instant.now();
+    }
+
+    @PreUpdate
+    private void onUpdate() {
+        lastModifiedDate = Instant.now();
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -105,12 +166,12 @@ public class Ingredient implements Serializable {
         if (!(o instanceof Ingredient)) {
             return false;
         }
-        return id != null && id.equals(((Ingredient) o).id);
+        return getUuid().equals(((Ingredient) o).getUuid());
     }
 
     @Override
     public int hashCode() {
-        return 31;
+        return getUuid().hashCode();
     }
 
     // prettier-ignore
@@ -121,6 +182,7 @@ public class Ingredient implements Serializable {
             ", quantity=" + getQuantity() +
             ", unit='" + getUnit() + "'" +
             ", name='" + getName() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -1,5 +1,6 @@
 package com.elmorabit.recipes.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
@@ -7,8 +8,10 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * A Recipe.
@@ -16,12 +19,32 @@ import java.util.Set;
 @Entity
 @Table(name = "recipe")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Recipe.SUMMARY_GRAPH)
+@NamedEntityGraph(name = Recipe.WITH_AUTHOR_GRAPH, attributeNodes = @NamedAttributeNode("author"))
+@NamedEntityGraph(name = Recipe.FULL_GRAPH, attributeNodes = {@NamedAttributeNode("author"), @NamedAttributeNode("ingredients")})
 public class Recipe implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Fetch plan loading only the recipe columns.
+     */
+    public static final String SUMMARY_GRAPH = "Recipe.summary";
+
+    /**
+     * Fetch plan loading the recipe and its author.
+     */
+    public static final String WITH_AUTHOR_GRAPH = "Recipe.withAuthor";
+
+    /**
+     * Fetch plan loading the recipe, its author and its ingredients.
+     */
+    public static final String FULL_GRAPH = "Recipe.full";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "recipeIdGenerator")
+    @TableGenerator(name = "recipeIdGenerator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "recipe", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -37,10 +60,28 @@ public class Recipe implements Serializable {
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Ingredient> ingredients = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = "recipes", allowSetters = true)
     private Author author;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    /**
+     * Date of the last change of the recipe, sent as the {@code Last-Modified} header of its representations.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified_date")
+    private Instant lastModifiedDate;
+
+    /**
+     * Identity of the recipe, assigned once when it is created so that its hash code does not change when it is persisted.
+     */
+    @JsonIgnore
+    @Column(name = "uuid", length = 36, nullable = false, unique = true, updatable = false)
+    private String uuid;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -126,6 +167,44 @@ public class Recipe implements Serializable {
     public void setAuthor(Author author) {
         this.author = author;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public String getUuid() {
+        if (uuid == null) {
+            uuid = UUID.randomUUID().toString();
+        }
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    @PrePersist
+    private void onCreate() {
+        getUuid();
+        lastModifiedDate = Instant.now();
+    }
+
+    @PreUpdate
+    private void onUpdate() {
+        lastModifiedDate = Instant.now();
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -136,12 +215,12 @@ public class Recipe implements Serializable {
         if (!(o instanceof Recipe)) {
             return false;
         }
-        return id != null && id.equals(((Recipe) o).id);
+        return getUuid().equals(((Recipe) o).getUuid());
     }
 
     @Override
     public int hashCode() {
-        return 31;
+        return getUuid().hashCode();
     }
 
     // prettier-ignore
@@ -152,6 +231,7 @@ public class Recipe implements Serializable {
             ", title='" + getTitle() + "'" +
             ", image='" + getImage() + "'" +
             ", description='" + getDescription() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
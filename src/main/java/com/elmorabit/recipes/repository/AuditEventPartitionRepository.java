@@ -0,0 +1,116 @@
+package com.elmorabit.recipes.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintenance of the range partitions of the {@code jhi_persistent_audit_event} table.
+ * <p>
+ * On MySQL the table is partitioned by {@code RANGE COLUMNS(event_date)}, one partition per period named after the day
+ * it ends, before a last {@code pmax} partition receiving the events beyond the last period. Queries filtering on
+ * {@code event_date} only read the partitions of their range, and a whole expired period is removed by dropping its
+ * partition. Other databases, such as the H2 database of development and tests, keep a single table, which is reported
+ * as {@link #isPartitioned() not partitioned}.
+ */
+@Repository
+public class AuditEventPartitionRepository {
+
+    static final String TABLE = "jhi_persistent_audit_event";
+
+    static final String LAST_PARTITION = "pmax";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean partitioned;
+
+    public AuditEventPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Tell whether the table is partitioned, which is only the case on MySQL.
+     */
+    public boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            result = "MySQL".equalsIgnoreCase(product) && jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.partitions where table_schema = database() and table_name = ? " +
+                    "and partition_name = ?", Integer.class, TABLE, LAST_PARTITION) > 0;
+            partitioned = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the end of every period partition, in order, {@link #LAST_PARTITION} excluded.
+     *
+     * @return the exclusive upper bounds of the period partitions.
+     */
+    public List<LocalDate> findPartitionBounds() {
+        List<LocalDate> bounds = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(
+            "select partition_name from information_schema.partitions where table_schema = database() and table_name = ? " +
+                "order by partition_ordinal_position", String.class, TABLE)) {
+            if (!LAST_PARTITION.equals(name)) {
+                bounds.add(LocalDate.parse(name, PARTITION_NAME));
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Add period partitions, splitting them out of {@link #LAST_PARTITION}.
+     *
+     * @param bounds the exclusive upper bounds of the new partitions, in order, all after the existing ones.
+     */
+    public void addPartitions(List<LocalDate> bounds) {
+        if (bounds.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("alter table ").append(TABLE).append(" reorganize partition ")
+            .append(LAST_PARTITION).append(" into (");
+        for (LocalDate bound : bounds) {
+            sql.append("partition ").append(partitionName(bound)).append(" values less than ('").append(bound).append("'), ");
+        }
+        sql.append("partition ").append(LAST_PARTITION).append(" values less than (maxvalue))");
+        jdbcTemplate.execute(sql.toString());
+    }
+
+    /**
+     * Get the lowest and highest event ids of a partition.
+     *
+     * @param bound the exclusive upper bound of the partition.
+     * @return the lowest then the highest id, both {@code null} if the partition is empty.
+     */
+    public Long[] findIdRange(LocalDate bound) {
+        return jdbcTemplate.queryForObject(
+            "select min(event_id), max(event_id) from " + TABLE + " partition (" + partitionName(bound) + ")",
+            (resultSet, row) -> new Long[] {
+                resultSet.getObject(1) == null ? null : resultSet.getLong(1),
+                resultSet.getObject(2) == null ? null : resultSet.getLong(2)
+            });
+    }
+
+    /**
+     * Drop a period partition with all of its events, in constant time.
+     *
+     * @param bound the exclusive upper bound of the partition.
+     */
+    public void dropPartition(LocalDate bound) {
+        jdbcTemplate.execute("alter table " + TABLE + " drop partition " + partitionName(bound));
+    }
+
+    static String partitionName(LocalDate bound) {
+        return PARTITION_NAME.format(bound);
+    }
+}
@@ -0,0 +1,289 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.PersistentAuditEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the audit events in the background, in JDBC batches.
+ * <p>
+ * Events are queued in a bounded lock-free queue, and a single writer thread inserts them, with their data, a batch at a
+ * time: as soon as a full batch is queued, or at the latest after the flush interval. When the queue is full, the
+ * {@link ApplicationProperties.Audit.OverflowPolicy overflow policy} either writes the event in the calling thread or
+ * discards it. The queue is drained when the application stops, and the events added afterwards are written in the calling
+ * thread.
+ * <p>
+ * Events are always written in a transaction of their own, so that they are kept when the transaction of the caller rolls
+ * back.
+ * <p>
+ * The queue depth and the number of events written and dropped are published as the {@code audit.events.queued},
+ * {@code audit.events.written} and {@code audit.events.dropped} metrics.
+ */
+@Component
+public class AuditEventWriter implements SmartLifecycle, MeterBinder {
+
+    private static final String INSERT_EVENT =
+        "insert into jhi_persistent_audit_event (principal, event_date, event_type) values (?, ?, ?)";
+
+    private static final String INSERT_DATA =
+        "insert into jhi_persistent_audit_evt_data (event_id, name, value) values (?, ?, ?)";
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventWriter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Audit properties;
+
+    private final ConcurrentLinkedQueue<PersistentAuditEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong droppedQueueFull = new AtomicLong();
+
+    private final AtomicLong droppedWriteFailed = new AtomicLong();
+
+    private volatile Thread writerThread;
+
+    private volatile boolean running;
+
+    private volatile boolean stopped;
+
+    public AuditEventWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getAudit();
+    }
+
+    /**
+     * Queue an event to be written, or apply the overflow policy if the queue is full, or write it in the calling thread
+     * once the writer is stopped.
+     *
+     * @param event the event to write.
+     */
+    public void add(PersistentAuditEvent event) {
+        if (stopped) {
+            write(Collections.singletonList(event));
+            return;
+        }
+        if (offer(event)) {
+            if (stopped) {
+                // The writer stopped meanwhile, its last flush may have missed the event
+                flushQuietly();
+            }
+            return;
+        }
+        if (properties.getOverflowPolicy() == ApplicationProperties.Audit.OverflowPolicy.CALLER_RUNS) {
+            write(Collections.singletonList(event));
+        } else {
+            droppedQueueFull.incrementAndGet();
+            log.warn("Audit event queue is full, dropped {}", event);
+        }
+    }
+
+    /**
+     * Write all the queued events in the calling thread.
+     */
+    public void flush() {
+        int batchSize = properties.getBatchSize();
+        List<PersistentAuditEvent> batch = new ArrayList<>(batchSize);
+        PersistentAuditEvent event;
+        while ((event = poll()) != null) {
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        Thread thread = new Thread(this::run, "audit-event-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        stopped = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audit.events.queued", queued, AtomicInteger::get)
+            .description("The number of audit events waiting to be written")
+            .register(registry);
+        FunctionCounter.builder("audit.events.written", written, AtomicLong::get)
+            .description("The number of audit events written")
+            .register(registry);
+        FunctionCounter.builder("audit.events.dropped", droppedQueueFull, AtomicLong::get)
+            .tag("reason", "queue-full")
+            .description("The number of audit events discarded")
+            .register(registry);
+        FunctionCounter.builder("audit.events.dropped", droppedWriteFailed, AtomicLong::get)
+            .tag("reason", "write-failed")
+            .description("The number of audit events discarded")
+            .register(registry);
+    }
+
+    private void run() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMillis());
+        while (running) {
+            if (queued.get() < properties.getBatchSize()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flushQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not write the audit events", e);
+        }
+    }
+
+    /**
+     * Reserve a place in the queue with a compare-and-set on its size, then queue the event, waking the writer up once a
+     * full batch is queued.
+     */
+    private boolean offer(PersistentAuditEvent event) {
+        int size;
+        do {
+            size = queued.get();
+            if (size >= properties.getQueueCapacity()) {
+                return false;
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+        queue.offer(event);
+        if (size + 1 == properties.getBatchSize()) {
+            Thread thread = writerThread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    private PersistentAuditEvent poll() {
+        PersistentAuditEvent event = queue.poll();
+        if (event != null) {
+            queued.decrementAndGet();
+        }
+        return event;
+    }
+
+    private void write(List<PersistentAuditEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    insert(connection, events);
+                    return null;
+                }));
+            written.addAndGet(events.size());
+        } catch (RuntimeException e) {
+            droppedWriteFailed.addAndGet(events.size());
+            throw e;
+        }
+    }
+
+    private static void insert(Connection connection, List<PersistentAuditEvent> events) throws SQLException {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        try (PreparedStatement insertEvent = connection.prepareStatement(INSERT_EVENT, new String[] {"event_id"})) {
+            for (PersistentAuditEvent event : events) {
+                insertEvent.setString(1, event.getPrincipal());
+                insertEvent.setTimestamp(2, event.getAuditEventDate() == null ? null : Timestamp.from(event.getAuditEventDate()), utc);
+                insertEvent.setString(3, event.getAuditEventType());
+                insertEvent.addBatch();
+            }
+            insertEvent.executeBatch();
+            try (ResultSet keys = insertEvent.getGeneratedKeys()) {
+                for (PersistentAuditEvent event : events) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated key of audit event " + event);
+                    }
+                    event.setId(keys.getLong(1));
+                }
+            }
+        }
+        try (PreparedStatement insertData = connection.prepareStatement(INSERT_DATA)) {
+            boolean hasData = false;
+            for (PersistentAuditEvent event : events) {
+                for (Map.Entry<String, String> entry : event.getData().entrySet()) {
+                    insertData.setLong(1, event.getId());
+                    insertData.setString(2, entry.getKey());
+                    insertData.setString(3, entry.getValue());
+                    insertData.addBatch();
+                    hasData = true;
+                }
+            }
+            if (hasData) {
+                insertData.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Author;
+
+import java.util.List;
+
+/**
+ * Queries of the {@link AuthorRepository} that cannot be derived by Spring Data.
+ */
+public interface AuthorRepositoryCustom {
+
+    /**
+     * Read the authors matching the given filter and following an id, in id order.
+     *
+     * @param namePrefix the beginning of the author names, or {@code null} for all names.
+     * @param lastId the id of the last author read, or {@code null} to start from the beginning.
+     * @param limit the maximum number of authors to read.
+     * @return the authors.
+     */
+    List<Author> findAllAfter(String namePrefix, Long lastId, int limit);
+}
@@ -0,0 +1,40 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Author_;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link AuthorRepositoryCustom}.
+ */
+public class AuthorRepositoryImpl implements AuthorRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Author> findAllAfter(String namePrefix, Long lastId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Author> query = cb.createQuery(Author.class);
+        Root<Author> root = query.from(Author.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (lastId != null) {
+            predicates.add(cb.gt(root.get(Author_.id), lastId));
+        }
+        if (namePrefix != null) {
+            predicates.add(cb.like(root.get(Author_.name), LikePatterns.startingWith(namePrefix), LikePatterns.ESCAPE));
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.asc(root.get(Author_.id)));
+
+        return em.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
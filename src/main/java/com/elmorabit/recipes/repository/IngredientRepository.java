@@ -3,12 +3,46 @@ package com.elmorabit.recipes.repository;
 import com.elmorabit.recipes.domain.Ingredient;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the Ingredient entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, IngredientRepositoryCustom {
+
+    @EntityGraph(attributePaths = {"recipe", "recipe.author"})
+    Optional<Ingredient> findWithRecipeById(Long id);
+
+    /**
+     * Read the searchable columns of the ingredients of the given recipes, as {@code [id, recipeId, name]} rows.
+     */
+    @Query("select i.id, i.recipe.id, i.name from Ingredient i where i.recipe.id in :recipeIds")
+    List<Object[]> findSearchableFieldsByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
+
+    /**
+     * Stream every ingredient in id order, with its recipe, without going through the second-level cache.
+     * <p>
+     * The stream must be consumed within a transaction and closed once read.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select i from Ingredient i left join fetch i.recipe order by i.id")
+    Stream<Ingredient> streamAllByOrderById();
 }
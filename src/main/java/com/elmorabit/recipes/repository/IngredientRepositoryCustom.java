@@ -0,0 +1,23 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Ingredient;
+
+import java.util.List;
+
+/**
+ * Queries of the {@link IngredientRepository} that cannot be derived by Spring Data.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Read the ingredients matching the given filters and following an id, in id order, with their recipe.
+     *
+     * @param namePrefix the beginning of the ingredient names, or {@code null} for all names.
+     * @param recipeId the id of the recipe of the ingredients, or {@code null} for all recipes.
+     * @param unit the unit of the ingredients, or {@code null} for all units.
+     * @param lastId the id of the last ingredient read, or {@code null} to start from the beginning.
+     * @param limit the maximum number of ingredients to read.
+     * @return the ingredients.
+     */
+    List<Ingredient> findAllAfter(String namePrefix, Long recipeId, String unit, Long lastId, int limit);
+}
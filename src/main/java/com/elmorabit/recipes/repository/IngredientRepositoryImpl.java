@@ -0,0 +1,51 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Ingredient_;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.domain.Recipe_;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link IngredientRepositoryCustom}.
+ */
+public class IngredientRepositoryImpl implements IngredientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Ingredient> findAllAfter(String namePrefix, Long recipeId, String unit, Long lastId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Ingredient> query = cb.createQuery(Ingredient.class);
+        Root<Ingredient> root = query.from(Ingredient.class);
+        // The author of the recipe is lazy, and serialized with the ingredient
+        Fetch<Ingredient, Recipe> recipe = root.fetch(Ingredient_.recipe, JoinType.LEFT);
+        recipe.fetch(Recipe_.author, JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (lastId != null) {
+            predicates.add(cb.gt(root.get(Ingredient_.id), lastId));
+        }
+        if (namePrefix != null) {
+            predicates.add(cb.like(root.get(Ingredient_.name), LikePatterns.startingWith(namePrefix), LikePatterns.ESCAPE));
+        }
+        if (recipeId != null) {
+            predicates.add(cb.equal(root.get(Ingredient_.recipe).get(Recipe_.id), recipeId));
+        }
+        if (unit != null) {
+            predicates.add(cb.equal(root.get(Ingredient_.unit), unit));
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.asc(root.get(Ingredient_.id)));
+
+        return em.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
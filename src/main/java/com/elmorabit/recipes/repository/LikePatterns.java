@@ -0,0 +1,34 @@
+package com.elmorabit.recipes.repository;
+
+/**
+ * Builds patterns for {@code like} predicates from user input.
+ */
+final class LikePatterns {
+
+    /**
+     * The escape character of the patterns built by this class.
+     */
+    static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Build a pattern matching the values starting with a prefix, taken literally.
+     * <p>
+     * A pattern without a leading wildcard can use an index on the column.
+     *
+     * @param prefix the prefix.
+     * @return the pattern, to be used with {@link #ESCAPE}.
+     */
+    static String startingWith(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (char c : prefix.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -4,8 +4,12 @@ import com.elmorabit.recipes.domain.PersistentAuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,5 +23,40 @@ public interface PersistenceAuditEventRepository extends JpaRepository<Persisten
 
     Page<PersistentAuditEvent> findAllByAuditEventDateBetween(Instant fromDate, Instant toDate, Pageable pageable);
 
-    List<PersistentAuditEvent> findByAuditEventDateBefore(Instant before);
+    /**
+     * Get the data of several events in one query, as (event id, name, value) rows.
+     */
+    @Query("select e.id, key(d), value(d) from PersistentAuditEvent e join e.data d where e.id in :ids")
+    List<Object[]> findDataByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Get the lowest id of the events older than a date, through the {@code event_date} index.
+     */
+    @Query("select min(e.id) from PersistentAuditEvent e where e.auditEventDate < :before")
+    Long findMinIdByAuditEventDateBefore(@Param("before") Instant before);
+
+    /**
+     * Get the highest id of the events older than a date, through the {@code event_date} index.
+     */
+    @Query("select max(e.id) from PersistentAuditEvent e where e.auditEventDate < :before")
+    Long findMaxIdByAuditEventDateBefore(@Param("before") Instant before);
+
+    /**
+     * Delete the data of the events of an id range older than a date, in a single statement.
+     */
+    @Modifying
+    @Query(value = "delete from jhi_persistent_audit_evt_data where event_id between :fromId and :toId and event_id in " +
+        "(select event_id from jhi_persistent_audit_event where event_id between :fromId and :toId and event_date < :before)",
+        nativeQuery = true)
+    int deleteDataByIdBetweenAndAuditEventDateBefore(@Param("fromId") long fromId, @Param("toId") long toId,
+        @Param("before") Instant before);
+
+    /**
+     * Delete the events of an id range older than a date, in a single statement, their data being deleted beforehand.
+     */
+    @Modifying
+    @Query(value = "delete from jhi_persistent_audit_event where event_id between :fromId and :toId and event_date < :before",
+        nativeQuery = true)
+    int deleteByIdBetweenAndAuditEventDateBefore(@Param("fromId") long fromId, @Param("toId") long toId,
+        @Param("before") Instant before);
 }
@@ -2,13 +2,67 @@ package com.elmorabit.recipes.repository;
 
 import com.elmorabit.recipes.domain.Recipe;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the Recipe entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeRepositoryCustom {
+
+    @EntityGraph(Recipe.WITH_AUTHOR_GRAPH)
+    Optional<Recipe> findWithAuthorById(Long id);
+
+    @EntityGraph(Recipe.FULL_GRAPH)
+    Optional<Recipe> findFullById(Long id);
+
+    @EntityGraph(Recipe.WITH_AUTHOR_GRAPH)
+    Page<Recipe> findAllWithAuthorBy(Pageable pageable);
+
+    /**
+     * Get a page of recipe ids, so that collections can then be fetched for that page only.
+     */
+    @Query(value = "select r.id from Recipe r", countQuery = "select count(r) from Recipe r")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @EntityGraph(Recipe.WITH_AUTHOR_GRAPH)
+    List<Recipe> findWithAuthorByIdIn(Collection<Long> ids);
+
+    @EntityGraph(Recipe.FULL_GRAPH)
+    List<Recipe> findDistinctFullByIdIn(Collection<Long> ids);
+
+    /**
+     * Stream every recipe in id order, without their associations and without going through the second-level cache.
+     * <p>
+     * The stream must be consumed within a transaction and closed once read.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select r from Recipe r order by r.id")
+    Stream<Recipe> streamAllByOrderById();
+
+    /**
+     * Read the searchable columns of the recipes following {@code afterId}, as {@code [id, title, description]} rows.
+     */
+    @Query("select r.id, r.title, r.description from Recipe r where r.id > :afterId order by r.id")
+    List<Object[]> findSearchableFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
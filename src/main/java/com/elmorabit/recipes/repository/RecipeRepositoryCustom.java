@@ -0,0 +1,28 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Recipe;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Queries of the {@link RecipeRepository} that cannot be derived by Spring Data.
+ */
+public interface RecipeRepositoryCustom {
+
+    /**
+     * Read the recipes following a position in keyset order, without counting them.
+     * <p>
+     * Recipes are ordered by the property of {@code order}, then by id in the same direction; {@code null}
+     * values sort lowest, as they do on H2 and MySQL.
+     *
+     * @param order the sort order, on {@code id} or on a string property.
+     * @param lastValue the sort key of the last recipe read, ignored when sorting on id.
+     * @param lastId the id of the last recipe read, or {@code null} to start from the beginning.
+     * @param limit the maximum number of recipes to read.
+     * @param entityGraph the name of the fetch plan to apply.
+     * @return the recipes.
+     */
+    List<Recipe> findAllAfter(Sort.Order order, String lastValue, Long lastId, int limit, String entityGraph);
+}
@@ -0,0 +1,64 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.domain.Recipe_;
+
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.List;
+
+/**
+ * Implementation of {@link RecipeRepositoryCustom}.
+ */
+public class RecipeRepositoryImpl implements RecipeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Recipe> findAllAfter(Sort.Order order, String lastValue, Long lastId, int limit, String entityGraph) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Recipe> query = cb.createQuery(Recipe.class);
+        Root<Recipe> root = query.from(Recipe.class);
+        Path<Long> id = root.get(Recipe_.id);
+        boolean ascending = order.isAscending();
+
+        if (Recipe_.ID.equals(order.getProperty())) {
+            if (lastId != null) {
+                query.where(ascending ? cb.gt(id, lastId) : cb.lt(id, lastId));
+            }
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<String> key = root.get(order.getProperty());
+            if (lastId != null) {
+                query.where(seek(cb, key, id, lastValue, lastId, ascending));
+            }
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        return em.createQuery(query)
+            .setHint("javax.persistence.fetchgraph", em.getEntityGraph(entityGraph))
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    /**
+     * Build the predicate selecting the rows after {@code (lastValue, lastId)}, with {@code null} keys sorting lowest.
+     */
+    private Predicate seek(CriteriaBuilder cb, Path<String> key, Path<Long> id, String lastValue, Long lastId, boolean ascending) {
+        if (ascending) {
+            if (lastValue == null) {
+                return cb.or(cb.and(cb.isNull(key), cb.gt(id, lastId)), cb.isNotNull(key));
+            }
+            // Same as key > lastValue or (key = lastValue and id > lastId), with a lower bound an index range scan can start from
+            return cb.and(cb.greaterThanOrEqualTo(key, lastValue), cb.or(cb.greaterThan(key, lastValue), cb.gt(id, lastId)));
+        }
+        if (lastValue == null) {
+            return cb.and(cb.isNull(key), cb.lt(id, lastId));
+        }
+        return cb.or(cb.lessThan(key, lastValue), cb.and(cb.equal(key, lastValue), cb.lt(id, lastId)), cb.isNull(key));
+    }
+}
@@ -0,0 +1,91 @@
+package com.elmorabit.recipes.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Leases of the scheduled jobs, in the {@code jhi_scheduled_lock} table.
+ * <p>
+ * A job is locked by the node whose lease is the last one written to its row, until {@code locked_until}: a lease is only
+ * granted once the previous one has expired, by a conditional update, or by inserting the row of a job locked for the
+ * first time. The lease of a node that stops without releasing it expires on its own.
+ * <p>
+ * Leases are written in the transaction of the caller, and only seen by the other nodes once it commits.
+ */
+@Repository
+public class ScheduledLockRepository {
+
+    private static final String UPDATE_EXPIRED =
+        "update jhi_scheduled_lock set locked_until = ?, locked_at = ?, locked_by = ? where name = ? and locked_until <= ?";
+
+    private static final String INSERT =
+        "insert into jhi_scheduled_lock (name, locked_until, locked_at, locked_by) values (?, ?, ?, ?)";
+
+    private static final String RELEASE =
+        "update jhi_scheduled_lock set locked_until = ? where name = ? and locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduledLockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lease a job, if it is not leased yet.
+     *
+     * @param name the name of the job.
+     * @param owner the name of the node leasing the job.
+     * @param now the start of the lease.
+     * @param until the end of the lease.
+     * @return whether the job was leased.
+     */
+    public boolean tryAcquire(String name, String owner, Instant now, Instant until) {
+        Calendar utc = utc();
+        int updated = jdbcTemplate.update(UPDATE_EXPIRED, statement -> {
+            statement.setTimestamp(1, Timestamp.from(until), utc);
+            statement.setTimestamp(2, Timestamp.from(now), utc);
+            statement.setString(3, owner);
+            statement.setString(4, name);
+            statement.setTimestamp(5, Timestamp.from(now), utc);
+        });
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT, statement -> {
+                statement.setString(1, name);
+                statement.setTimestamp(2, Timestamp.from(until), utc);
+                statement.setTimestamp(3, Timestamp.from(now), utc);
+                statement.setString(4, owner);
+            }) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * End a lease earlier than planned, if it is still held.
+     *
+     * @param name the name of the job.
+     * @param owner the name of the node holding the lease.
+     * @param until the new end of the lease.
+     */
+    public void release(String name, String owner, Instant until) {
+        Calendar utc = utc();
+        jdbcTemplate.update(RELEASE, statement -> {
+            statement.setTimestamp(1, Timestamp.from(until), utc);
+            statement.setString(2, name);
+            statement.setString(3, owner);
+        });
+    }
+
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.elmorabit.recipes.security.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The principals of the tokens already verified, so that a token sent again is not parsed nor verified again.
+ * <p>
+ * Only verified tokens are added, keyed by their SHA-256 digest so that the tokens themselves are not kept, and each one
+ * is forgotten when the token expires. Up to {@link #MAX_TOKENS} tokens are kept: when full, the expired tokens are
+ * removed, then an arbitrary one if none is expired.
+ */
+final class TokenAuthenticationCache {
+
+    static final int MAX_TOKENS = 10_000;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongSupplier currentTimeMillis;
+
+    TokenAuthenticationCache() {
+        this(System::currentTimeMillis);
+    }
+
+    TokenAuthenticationCache(LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Get the principal of a verified token.
+     *
+     * @param token the token.
+     * @return the principal of the token, or {@code null} if it was not verified or has expired since.
+     */
+    Entry get(String token) {
+        String digest = digest(token);
+        Entry entry = entries.get(digest);
+        if (entry != null && currentTimeMillis.getAsLong() >= entry.expiresAt) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Remember the principal of a verified token.
+     *
+     * @param token the token.
+     * @param principal the principal named by the token.
+     * @param authorities the authorities granted by the token.
+     * @param expiresAt the expiration date of the token, in milliseconds since the epoch.
+     */
+    void put(String token, User principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+        if (entries.size() >= MAX_TOKENS) {
+            long now = currentTimeMillis.getAsLong();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            Iterator<String> digests = entries.keySet().iterator();
+            while (entries.size() >= MAX_TOKENS && digests.hasNext()) {
+                digests.next();
+                digests.remove();
+            }
+        }
+        entries.put(digest(token), new Entry(principal, authorities, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static final class Entry {
+
+        private final User principal;
+
+        private final Collection<? extends GrantedAuthority> authorities;
+
+        private final long expiresAt;
+
+        private Entry(User principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+            this.principal = principal;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        User getPrincipal() {
+            return principal;
+        }
+
+        Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+}
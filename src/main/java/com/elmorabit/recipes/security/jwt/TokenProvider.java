@@ -30,6 +30,10 @@ public class TokenProvider {
 
     private Key key;
 
+    private JwtParser jwtParser;
+
+    private final TokenAuthenticationCache authenticationCache = new TokenAuthenticationCache();
+
     private long tokenValidityInMilliseconds;
 
     private long tokenValidityInMillisecondsForRememberMe;
@@ -53,6 +57,7 @@ public class TokenProvider {
             keyBytes = Decoders.BASE64.decode(jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret());
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
         this.tokenValidityInMilliseconds =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
@@ -82,16 +87,9 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
-        Collection<? extends GrantedAuthority> authorities =
-            Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        Collection<? extends GrantedAuthority> authorities = getAuthorities(claims);
 
         User principal = new User(claims.getSubject(), "", authorities);
 
@@ -100,7 +98,7 @@ public class TokenProvider {
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
+            jwtParser.parseClaimsJws(authToken);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
@@ -108,4 +106,38 @@ public class TokenProvider {
         }
         return false;
     }
+
+    /**
+     * Validate a token and get its authentication, parsing and verifying the token only the first time it is seen
+     * until it expires.
+     *
+     * @param authToken the token.
+     * @return the authentication of the token, or an empty {@link Optional} if the token is invalid.
+     */
+    public Optional<Authentication> resolveAuthentication(String authToken) {
+        TokenAuthenticationCache.Entry cached = authenticationCache.get(authToken);
+        if (cached != null) {
+            return Optional.of(new UsernamePasswordAuthenticationToken(cached.getPrincipal(), authToken, cached.getAuthorities()));
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(authToken).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return Optional.empty();
+        }
+        Collection<? extends GrantedAuthority> authorities = getAuthorities(claims);
+        User principal = new User(claims.getSubject(), "", authorities);
+        if (claims.getExpiration() != null) {
+            authenticationCache.put(authToken, principal, authorities, claims.getExpiration().getTime());
+        }
+        return Optional.of(new UsernamePasswordAuthenticationToken(principal, authToken, authorities));
+    }
+
+    private static Collection<? extends GrantedAuthority> getAuthorities(Claims claims) {
+        return Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+    }
 }
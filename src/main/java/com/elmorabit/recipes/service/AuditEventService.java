@@ -1,20 +1,31 @@
 package com.elmorabit.recipes.service;
 
 import io.github.jhipster.config.JHipsterProperties;
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.config.audit.AuditEventConverter;
+import com.elmorabit.recipes.domain.PersistentAuditEvent;
+import com.elmorabit.recipes.repository.AuditEventPartitionRepository;
 import com.elmorabit.recipes.repository.PersistenceAuditEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Service for managing audit events.
@@ -25,6 +36,11 @@ import java.util.Optional;
 @Transactional
 public class AuditEventService {
 
+    /**
+     * 1970-01-05, the first Monday of the epoch.
+     */
+    private static final long FIRST_MONDAY_EPOCH_DAY = 4;
+
     private final Logger log = LoggerFactory.getLogger(AuditEventService.class);
 
     private final JHipsterProperties jHipsterProperties;
@@ -33,40 +49,221 @@ public class AuditEventService {
 
     private final AuditEventConverter auditEventConverter;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AuditEventPartitionRepository auditEventPartitionRepository;
+
+    private final ScheduledLockService scheduledLockService;
+
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter, JHipsterProperties jhipsterProperties) {
+        AuditEventConverter auditEventConverter, JHipsterProperties jhipsterProperties,
+        ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager,
+        AuditEventPartitionRepository auditEventPartitionRepository, ScheduledLockService scheduledLockService) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.auditEventPartitionRepository = auditEventPartitionRepository;
         this.auditEventConverter = auditEventConverter;
         this.jHipsterProperties = jhipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduledLockService = scheduledLockService;
     }
 
     /**
      * Old audit events should be automatically deleted after 30 days.
      *
-     * This is scheduled to get fired at 12:00 (am).
+     * This is scheduled to get fired at 12:00 (am), on the node which leases the job.
      */
     @Scheduled(cron = "0 0 12 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeOldAuditEvents() {
-        persistenceAuditEventRepository
-            .findByAuditEventDateBefore(Instant.now().minus(jHipsterProperties.getAuditEvents().getRetentionPeriod(), ChronoUnit.DAYS))
-            .forEach(auditEvent -> {
-                log.debug("Deleting audit data {}", auditEvent);
-                persistenceAuditEventRepository.delete(auditEvent);
+        scheduledLockService.runLocked("removeOldAuditEvents", () -> {
+            Instant now = Instant.now();
+            Instant before = now.minus(jHipsterProperties.getAuditEvents().getRetentionPeriod(), ChronoUnit.DAYS);
+            maintainPartitions(now, before);
+            removeAuditEventsBefore(before);
+        });
+    }
+
+    /**
+     * Add the partitions of the coming periods when the application starts, so that new events never land in the last
+     * catch-all partition.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void addAuditEventPartitions() {
+        try {
+            maintainPartitions(Instant.now(), null);
+        } catch (DataAccessException e) {
+            log.warn("Could not add the audit event partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Maintain the partitions of the audit events, if the table is partitioned: add the partitions of the coming periods,
+     * then drop the partitions of the periods ending before a date, after deleting the data of their events.
+     * <p>
+     * The data table is not partitioned, and has no foreign key to the partitioned event table, so the data of the events
+     * of a partition can only be found through its events: a partition is only dropped once the data of all of its events
+     * is deleted, and kept for the next maintenance if the purge is interrupted.
+     *
+     * @param now the current date.
+     * @param before the date of the oldest audit event to keep, or {@code null} to keep every partition.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void maintainPartitions(Instant now, Instant before) {
+        if (!auditEventPartitionRepository.isPartitioned()) {
+            return;
+        }
+        int periodDays = applicationProperties.getAudit().getPartitionDays();
+        List<LocalDate> bounds = auditEventPartitionRepository.findPartitionBounds();
+        List<LocalDate> missing = missingPartitionBounds(bounds.isEmpty() ? null : bounds.get(bounds.size() - 1),
+            now.atZone(ZoneOffset.UTC).toLocalDate(), periodDays, applicationProperties.getAudit().getPartitionsAhead());
+        if (!missing.isEmpty()) {
+            auditEventPartitionRepository.addPartitions(missing);
+            log.info("Added audit event partitions ending on {}", missing);
+        }
+        if (before == null) {
+            return;
+        }
+        for (LocalDate bound : bounds) {
+            Instant end = bound.atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (end.isAfter(before)) {
+                break;
+            }
+            Long[] ids = auditEventPartitionRepository.findIdRange(bound);
+            long data = 0;
+            if (ids[0] != null) {
+                long[] deleted = deleteByChunks(ids[0], ids[1], end, false);
+                if (deleted[2] < ids[1]) {
+                    log.warn("Kept the audit event partition ending on {}, the data of its events up to id {} are left", bound,
+                        ids[1]);
+                    return;
+                }
+                data = deleted[0];
+            }
+            auditEventPartitionRepository.dropPartition(bound);
+            log.info("Dropped the audit event partition ending on {}, with {} data rows", bound, data);
+        }
+    }
+
+    /**
+     * Delete the audit events older than a date, with their data, by chunks of ids.
+     * <p>
+     * The range of ids to purge is read from the {@code event_date} index, then each chunk of ids is deleted with one
+     * statement per table and committed in its own transaction, with a pause between chunks, so that locks are only held
+     * for a chunk at a time. An interrupted purge is resumed by the next one, which starts from the lowest id left.
+     *
+     * @param before the date of the oldest audit event to keep.
+     * @return the number of deleted audit events.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long removeAuditEventsBefore(Instant before) {
+        Long minId = persistenceAuditEventRepository.findMinIdByAuditEventDateBefore(before);
+        Long maxId = persistenceAuditEventRepository.findMaxIdByAuditEventDateBefore(before);
+        if (minId == null || maxId == null) {
+            log.debug("No audit events older than {}", before);
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        long[] deleted = deleteByChunks(minId, maxId, before, true);
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        log.info("Deleted {} audit events and {} data rows older than {} in {} ms, {} events/s", deleted[1], deleted[0], before,
+            elapsed, deleted[1] * 1000 / elapsed);
+        return deleted[1];
+    }
+
+    /**
+     * Delete the data, and optionally the events, of a range of ids older than a date, a chunk of ids per transaction.
+     *
+     * @return the number of deleted data rows, then of deleted events, then the last id of the range purged, lower than the
+     * highest id if the purge was interrupted.
+     */
+    private long[] deleteByChunks(long minId, long maxId, Instant before, boolean deleteEvents) {
+        long chunkSize = applicationProperties.getAudit().getPurgeChunkSize();
+        long pauseMillis = applicationProperties.getAudit().getPurgePauseMillis();
+        long[] total = {0, 0, minId - 1};
+        for (long chunkStart = minId; chunkStart <= maxId; chunkStart += chunkSize) {
+            long fromId = chunkStart;
+            long toId = Math.min(chunkStart + chunkSize - 1, maxId);
+            long[] deleted = transactionTemplate.execute(status -> new long[] {
+                persistenceAuditEventRepository.deleteDataByIdBetweenAndAuditEventDateBefore(fromId, toId, before),
+                deleteEvents ? persistenceAuditEventRepository.deleteByIdBetweenAndAuditEventDateBefore(fromId, toId, before) : 0
             });
+            total[0] += deleted[0];
+            total[1] += deleted[1];
+            total[2] = toId;
+            log.debug("Deleted {} audit events and {} data rows with ids from {} to {}", deleted[1], deleted[0], fromId, toId);
+            if (pauseMillis > 0 && toId < maxId) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Audit event purge interrupted after {} events, up to id {}", total[1], toId);
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Compute the bounds of the partitions to add, so that the periods up to a number of periods after today have one.
+     * <p>
+     * Periods are aligned on Mondays, so that 7-day periods are calendar weeks and 1-day periods are days.
+     *
+     * @param lastBound the end of the last existing period partition, or {@code null} if there is none.
+     * @param today the current day.
+     * @param periodDays the length of a period, in days.
+     * @param periodsAhead the number of periods to prepare after the current one.
+     * @return the ends of the periods to add, in order.
+     */
+    static List<LocalDate> missingPartitionBounds(LocalDate lastBound, LocalDate today, int periodDays, int periodsAhead) {
+        LocalDate currentEnd = periodStart(today, periodDays).plusDays(periodDays);
+        LocalDate until = currentEnd.plusDays((long) periodDays * periodsAhead);
+        List<LocalDate> bounds = new ArrayList<>();
+        for (LocalDate bound = lastBound == null ? currentEnd : lastBound.plusDays(periodDays); !bound.isAfter(until);
+            bound = bound.plusDays(periodDays)) {
+            bounds.add(bound);
+        }
+        return bounds;
+    }
+
+    private static LocalDate periodStart(LocalDate day, int periodDays) {
+        long sinceMonday = day.toEpochDay() - FIRST_MONDAY_EPOCH_DAY;
+        return LocalDate.ofEpochDay(Math.floorDiv(sinceMonday, periodDays) * periodDays + FIRST_MONDAY_EPOCH_DAY);
     }
 
     @Transactional(readOnly = true)
     public Page<AuditEvent> findAll(Pageable pageable) {
-        return persistenceAuditEventRepository.findAll(pageable)
-            .map(auditEventConverter::convertToAuditEvent);
+        return convertWithData(persistenceAuditEventRepository.findAll(pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<AuditEvent> findByDates(Instant fromDate, Instant toDate, Pageable pageable) {
-        return persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable)
-            .map(auditEventConverter::convertToAuditEvent);
+        return convertWithData(persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable));
+    }
+
+    /**
+     * Convert a page of events, reading the data of all of them in a single query rather than a query per event.
+     */
+    private Page<AuditEvent> convertWithData(Page<PersistentAuditEvent> page) {
+        if (!page.hasContent()) {
+            return page.map(auditEventConverter::convertToAuditEvent);
+        }
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        for (PersistentAuditEvent persistentAuditEvent : page) {
+            ids.add(persistentAuditEvent.getId());
+        }
+        Map<Long, Map<String, Object>> data = new HashMap<>();
+        for (Object[] row : persistenceAuditEventRepository.findDataByIdIn(ids)) {
+            data.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put((String) row[1], row[2]);
+        }
+        return page.map(persistentAuditEvent -> auditEventConverter.convertToAuditEvent(persistentAuditEvent,
+            data.getOrDefault(persistentAuditEvent.getId(), Collections.emptyMap())));
     }
 
     @Transactional(readOnly = true)
@@ -2,8 +2,10 @@ package com.elmorabit.recipes.service;
 
 import com.elmorabit.recipes.domain.Author;
 
-import java.util.List;
+import org.springframework.data.domain.Slice;
+
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link Author}.
@@ -19,11 +21,24 @@ public interface AuthorService {
     Author save(Author author);
 
     /**
-     * Get all the authors.
+     * Get the authors matching the given filters and following an id, in id order, without counting them.
+     *
+     * @param namePrefix the beginning of the author names, or {@code null} for all names.
+     * @param afterId the id of the last author of the previous page, or {@code null} for the first page.
+     * @param size the requested number of authors, reduced to the maximum page size if larger.
+     * @return the slice of entities.
+     */
+    Slice<Author> findAll(String namePrefix, Long afterId, int size);
+
+    /**
+     * Read every author, in id order.
+     * <p>
+     * The authors are streamed from the database and detached in batches once consumed,
+     * so memory usage does not depend on the number of authors.
      *
-     * @return the list of entities.
+     * @param consumer the consumer of each author, called within a read-only transaction.
      */
-    List<Author> findAll();
+    void exportAll(Consumer<Author> consumer);
 
 
     /**
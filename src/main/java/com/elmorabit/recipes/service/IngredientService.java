@@ -2,8 +2,10 @@ package com.elmorabit.recipes.service;
 
 import com.elmorabit.recipes.domain.Ingredient;
 
-import java.util.List;
+import org.springframework.data.domain.Slice;
+
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link Ingredient}.
@@ -19,11 +21,26 @@ public interface IngredientService {
     Ingredient save(Ingredient ingredient);
 
     /**
-     * Get all the ingredients.
+     * Get the ingredients matching the given filters and following an id, in id order, without counting them.
+     *
+     * @param namePrefix the beginning of the ingredient names, or {@code null} for all names.
+     * @param recipeId the id of the recipe of the ingredients, or {@code null} for all recipes.
+     * @param unit the unit of the ingredients, or {@code null} for all units.
+     * @param afterId the id of the last ingredient of the previous page, or {@code null} for the first page.
+     * @param size the requested number of ingredients, reduced to the maximum page size if larger.
+     * @return the slice of entities.
+     */
+    Slice<Ingredient> findAll(String namePrefix, Long recipeId, String unit, Long afterId, int size);
+
+    /**
+     * Read every ingredient, in id order.
+     * <p>
+     * The ingredients are streamed from the database and detached in batches once consumed,
+     * so memory usage does not depend on the number of ingredients.
      *
-     * @return the list of entities.
+     * @param consumer the consumer of each ingredient, called within a read-only transaction.
      */
-    List<Ingredient> findAll();
+    void exportAll(Consumer<Ingredient> consumer);
 
 
     /**
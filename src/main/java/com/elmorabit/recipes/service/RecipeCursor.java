@@ -0,0 +1,107 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.domain.Recipe_;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset (seek) pagination over the recipes.
+ * <p>
+ * A cursor holds the sort order and the sort key and id of the last recipe of the previous page, so the
+ * next page is read with a {@code WHERE (key, id) > (last key, last id)} predicate instead of an offset.
+ * It is exchanged with clients as an opaque URL-safe string.
+ */
+public final class RecipeCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final Sort.Order order;
+
+    private final String lastValue;
+
+    private final Long lastId;
+
+    private RecipeCursor(Sort.Order order, String lastValue, Long lastId) {
+        this.order = order;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Create the cursor of the first page.
+     *
+     * @param sort the requested sort, only its first order is used; sorts on {@code id} ascending if unsorted.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the sort is on a property that does not support keyset pagination.
+     */
+    public static RecipeCursor first(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(Recipe_.ID));
+        checkProperty(order.getProperty());
+        return new RecipeCursor(new Sort.Order(order.getDirection(), order.getProperty()), null, null);
+    }
+
+    /**
+     * Create the cursor of the page following a recipe.
+     *
+     * @param recipe the last recipe of the current page.
+     * @return the cursor.
+     */
+    public RecipeCursor after(Recipe recipe) {
+        return new RecipeCursor(order, Recipe_.TITLE.equals(order.getProperty()) ? recipe.getTitle() : null, recipe.getId());
+    }
+
+    /**
+     * Decode a cursor sent by a client.
+     *
+     * @param token the opaque cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static RecipeCursor decode(String token) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        if (parts.length != 4 || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        checkProperty(parts[0]);
+        Sort.Order order = new Sort.Order(Sort.Direction.fromString(parts[1]), parts[0]);
+        String lastValue = parts[3].charAt(0) == '=' ? parts[3].substring(1) : null;
+        return new RecipeCursor(order, lastValue, Long.valueOf(parts[2]));
+    }
+
+    /**
+     * @return the opaque representation of this cursor.
+     */
+    public String encode() {
+        String value = lastValue == null ? "-" : "=" + lastValue;
+        String raw = String.join(SEPARATOR, order.getProperty(), order.getDirection().name(), String.valueOf(lastId), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Sort.Order getOrder() {
+        return order;
+    }
+
+    /**
+     * @return the sort key of the last recipe read, {@code null} when sorting on id or when that key was null.
+     */
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * @return the id of the last recipe read, {@code null} for the first page.
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+
+    private static void checkProperty(String property) {
+        if (!Recipe_.ID.equals(property) && !Recipe_.TITLE.equals(property)) {
+            throw new IllegalArgumentException("Keyset pagination is only supported on id and title, not on " + property);
+        }
+    }
+}
@@ -4,8 +4,11 @@ import com.elmorabit.recipes.domain.Recipe;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link Recipe}.
@@ -21,22 +24,88 @@ public interface RecipeService {
     Recipe save(Recipe recipe);
 
     /**
-     * Get all the recipes.
+     * Save an existing recipe with all its ingredients: submitted ingredients without id are created, the ones with an id
+     * are updated, and the persisted ingredients missing from the submitted ones are deleted.
+     *
+     * @param recipe the entity to save, with the version it was read with and its complete list of ingredients.
+     * @return the persisted entity, with its author and ingredients, or empty if there is no recipe with this id.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the recipe was changed since it was read.
+     * @throws IllegalArgumentException if a submitted ingredient belongs to another recipe.
+     */
+    Optional<Recipe> saveWithIngredients(Recipe recipe);
+
+    /**
+     * Get all the recipes, with their author.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
      */
     Page<Recipe> findAll(Pageable pageable);
 
+    /**
+     * Get all the recipes, loaded with the given fetch plan.
+     *
+     * @param pageable the pagination information.
+     * @param view the fetch plan of the recipes.
+     * @return the list of entities.
+     */
+    Page<Recipe> findAll(Pageable pageable, RecipeView view);
+
+    /**
+     * Get the recipes following a keyset position, without counting them.
+     *
+     * @param cursor the position of the page to read.
+     * @param size the maximum number of recipes to read.
+     * @param view the fetch plan of the recipes.
+     * @return the slice of entities, sorted as requested by the cursor.
+     */
+    Slice<Recipe> findAllAfter(RecipeCursor cursor, int size, RecipeView view);
+
+    /**
+     * Read every recipe, with its author and ingredients, in id order.
+     * <p>
+     * Recipes are streamed from the database and detached in batches once consumed,
+     * so memory usage does not depend on the number of recipes.
+     *
+     * @param consumer the consumer of each recipe, called within a read-only transaction.
+     */
+    void exportAll(Consumer<Recipe> consumer);
 
     /**
-     * Get the "id" recipe.
+     * Search the recipes matching a free text query, best matches first.
+     *
+     * @param query the query on the recipe title, description and ingredient names.
+     * @param pageable the pagination information.
+     * @return the page of matching entities.
+     */
+    Page<Recipe> search(String query, Pageable pageable);
+
+    /**
+     * Get the recipes using at least one of the given ingredients, the ones covering most of them first.
+     *
+     * @param ingredientNames the names of the available ingredients.
+     * @param pageable the pagination information.
+     * @return the page of matching entities.
+     */
+    Page<Recipe> findAllByIngredients(List<String> ingredientNames, Pageable pageable);
+
+    /**
+     * Get the "id" recipe, with its author.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
     Optional<Recipe> findOne(Long id);
 
+    /**
+     * Get the "id" recipe, loaded with the given fetch plan.
+     *
+     * @param id the id of the entity.
+     * @param view the fetch plan of the recipe.
+     * @return the entity.
+     */
+    Optional<Recipe> findOne(Long id, RecipeView view);
+
     /**
      * Delete the "id" recipe.
      *
@@ -0,0 +1,47 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.domain.Recipe;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The fetch plans a {@link Recipe} can be read with, selected by the {@code view} request parameter.
+ */
+public enum RecipeView {
+
+    /**
+     * Only the recipe columns, the author and the ingredients are not loaded.
+     */
+    SUMMARY("summary"),
+
+    /**
+     * The recipe and its author.
+     */
+    WITH_AUTHOR("with-author"),
+
+    /**
+     * The recipe, its author and its ingredients.
+     */
+    FULL("full");
+
+    private final String parameter;
+
+    RecipeView(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Get the view matching a request parameter value.
+     *
+     * @param parameter the value of the {@code view} request parameter.
+     * @return the matching view, or an empty {@link Optional} if the value is unknown.
+     */
+    public static Optional<RecipeView> fromParameter(String parameter) {
+        return Arrays.stream(values()).filter(view -> view.parameter.equals(parameter)).findFirst();
+    }
+}
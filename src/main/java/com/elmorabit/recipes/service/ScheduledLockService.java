@@ -0,0 +1,110 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.repository.ScheduledLockRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the scheduled jobs on a single node at a time, under a lease in the database.
+ * <p>
+ * Every node triggers the jobs, but only the node which leases a job runs it, the others skip it. The lease ends when
+ * the job is done, but not before the minimum hold time, so that a node whose clock is a little late does not run the
+ * same job again; it expires on its own after the lease time if the node stops while running the job, which must
+ * therefore be longer than the longest run of a job.
+ * <p>
+ * The jobs running on this node are published as the {@code scheduled.lock.held} metric, and the runs and skips of each
+ * job as the {@code scheduled.lock.runs} metric.
+ */
+@Service
+public class ScheduledLockService {
+
+    private final Logger log = LoggerFactory.getLogger(ScheduledLockService.class);
+
+    private final ScheduledLockRepository scheduledLockRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> held = new ConcurrentHashMap<>();
+
+    private final String owner;
+
+    public ScheduledLockService(ScheduledLockRepository scheduledLockRepository, ApplicationProperties applicationProperties,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.scheduledLockRepository = scheduledLockRepository;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Run a job if this node can lease it, the lease being committed before the job starts.
+     *
+     * @param name the name of the job.
+     * @param job the job.
+     * @return whether the job was run.
+     */
+    public boolean runLocked(String name, Runnable job) {
+        Instant lockedAt = Instant.now();
+        Instant until = lockedAt.plusSeconds(applicationProperties.getScheduling().getLockLeaseSeconds());
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status ->
+            scheduledLockRepository.tryAcquire(name, owner, lockedAt, until)))) {
+            log.debug("Skipped {}, locked by another node", name);
+            runs(name, "skipped").increment();
+            return false;
+        }
+        AtomicInteger lockHeld = held.computeIfAbsent(name, key ->
+            meterRegistry.gauge("scheduled.lock.held", Tags.of("name", key), new AtomicInteger()));
+        lockHeld.set(1);
+        runs(name, "run").increment();
+        log.debug("Running {}, locked by {} until {}", name, owner, until);
+        try {
+            job.run();
+        } finally {
+            lockHeld.set(0);
+            release(name, lockedAt);
+        }
+        return true;
+    }
+
+    private void release(String name, Instant lockedAt) {
+        Instant now = Instant.now();
+        Instant minUntil = lockedAt.plusSeconds(applicationProperties.getScheduling().getLockMinHoldSeconds());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                scheduledLockRepository.release(name, owner, minUntil.isAfter(now) ? minUntil : now));
+        } catch (DataAccessException e) {
+            log.warn("Could not release the lock of {}, it will expire on its own: {}", name, e.getMessage());
+        }
+    }
+
+    private Counter runs(String name, String outcome) {
+        return Counter.builder("scheduled.lock.runs")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .description("The number of scheduled job triggers, run on this node or skipped")
+            .register(meterRegistry);
+    }
+}
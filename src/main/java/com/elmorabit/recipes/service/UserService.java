@@ -1,5 +1,6 @@
 package com.elmorabit.recipes.service;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.config.Constants;
 import com.elmorabit.recipes.domain.Authority;
 import com.elmorabit.recipes.domain.User;
@@ -11,15 +12,23 @@ import com.elmorabit.recipes.service.dto.UserDTO;
 
 import io.github.jhipster.security.RandomUtil;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -43,11 +52,32 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository, CacheManager cacheManager) {
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ScheduledLockService scheduledLockService;
+
+    private final Counter notActivatedUsersDeleted;
+
+    private final Timer notActivatedUsersBatches;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository,
+            CacheManager cacheManager, ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager,
+            ScheduledLockService scheduledLockService, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduledLockService = scheduledLockService;
+        this.notActivatedUsersDeleted = Counter.builder("users.not.activated.deleted")
+            .description("The number of not activated users deleted by the purge")
+            .register(meterRegistry);
+        this.notActivatedUsersBatches = Timer.builder("users.not.activated.purge.batches")
+            .description("The time taken to delete a batch of not activated users")
+            .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -272,17 +302,58 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), on the node which leases the job.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
+        scheduledLockService.runLocked("removeNotActivatedUsers", () ->
+            removeNotActivatedUsersBefore(Instant.now().minus(3, ChronoUnit.DAYS)));
+    }
+
+    /**
+     * Delete the not activated users created before a date, by batches.
+     * <p>
+     * Each batch reads the id, login and email of the next users by ascending id, then deletes them and their authorities
+     * with one statement per table, in its own transaction, before evicting them from the user caches. Progress is
+     * published as the {@code users.not.activated.deleted} and {@code users.not.activated.purge.batches} metrics.
+     *
+     * @param before the creation date of the oldest not activated user to keep.
+     * @return the number of deleted users.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long removeNotActivatedUsersBefore(Instant before) {
+        Pageable batch = PageRequest.of(0, applicationProperties.getUsers().getPurgeBatchSize());
+        long start = System.currentTimeMillis();
+        long total = 0;
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            long fromId = afterId;
+            Timer.Sample sample = Timer.start();
+            rows = transactionTemplate.execute(status -> {
+                List<Object[]> users = userRepository.findNotActivatedByCreatedDateBeforeAndIdGreaterThan(before, fromId, batch);
+                if (!users.isEmpty()) {
+                    userRepository.deleteByIdIn(users.stream().map(user -> (Long) user[0]).collect(Collectors.toList()));
+                }
+                return users;
             });
+            if (rows.isEmpty()) {
+                break;
+            }
+            clearUserCaches(rows);
+            sample.stop(notActivatedUsersBatches);
+            notActivatedUsersDeleted.increment(rows.size());
+            total += rows.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            log.debug("Deleted {} not activated users, up to id {}", rows.size(), afterId);
+        } while (rows.size() == batch.getPageSize());
+        if (total > 0) {
+            long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+            log.info("Deleted {} not activated users created before {} in {} ms, {} users/s", total, before, elapsed,
+                total * 1000 / elapsed);
+        }
+        return total;
     }
 
     /**
@@ -301,4 +372,30 @@ public class UserService {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
         }
     }
+
+    /**
+     * Evict a batch of users, given as id, login and email rows, from the user caches, with one call per cache.
+     */
+    private void clearUserCaches(List<Object[]> users) {
+        Set<Object> logins = new HashSet<>();
+        Set<Object> emails = new HashSet<>();
+        for (Object[] user : users) {
+            logins.add(user[1]);
+            if (user[2] != null) {
+                emails.add(user[2]);
+            }
+        }
+        evictAll(UserRepository.USERS_BY_LOGIN_CACHE, logins);
+        evictAll(UserRepository.USERS_BY_EMAIL_CACHE, emails);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictAll(String cacheName, Set<Object> keys) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        if (cache.getNativeCache() instanceof javax.cache.Cache) {
+            ((javax.cache.Cache<Object, Object>) cache.getNativeCache()).removeAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.elmorabit.recipes.service.cache;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.RecipeRepository;
+
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Protects the database from the reads of a recipe missing from the entity cache.
+ * <p>
+ * Concurrent loads of a recipe are coalesced by a {@link SingleFlight}, and the recipes loaded from the database are
+ * reloaded in the background shortly before they expire from the cache, as decided by a {@link RefreshAhead}, so that hot
+ * recipes do not expire at all.
+ */
+@Component
+public class RecipeCacheLoader {
+
+    private final Logger log = LoggerFactory.getLogger(RecipeCacheLoader.class);
+
+    private final RecipeRepository recipeRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final SingleFlight<Long> loads;
+
+    private final RefreshAhead<Long> refreshAhead;
+
+    private final Duration timeToLive;
+
+    public RecipeCacheLoader(RecipeRepository recipeRepository, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, @Qualifier("taskExecutor") Executor taskExecutor,
+            CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this.recipeRepository = recipeRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        ApplicationProperties.Cache cacheProperties = applicationProperties.getCache();
+        this.loads = new SingleFlight<>(Duration.ofSeconds(cacheProperties.getLoadTimeoutSeconds()));
+        this.refreshAhead = new RefreshAhead<>(Duration.ofSeconds(cacheProperties.getRefreshAheadSeconds()));
+        this.timeToLive = timeToLive(cacheManager);
+    }
+
+    /**
+     * Read the time to live of the recipes in the entity cache, from the expiry of their region.
+     */
+    @SuppressWarnings("unchecked")
+    private static Duration timeToLive(CacheManager cacheManager) {
+        Eh107Configuration<Object, Object> configuration = cacheManager.getCache(Recipe.class.getName())
+            .getConfiguration(Eh107Configuration.class);
+        CacheRuntimeConfiguration<Object, Object> runtimeConfiguration = configuration.unwrap(CacheRuntimeConfiguration.class);
+        return runtimeConfiguration.getExpiryPolicy().getExpiryForCreation(null, null);
+    }
+
+    /**
+     * Load a recipe missing from the entity cache, once the concurrent load of the same recipe, if any, completed.
+     *
+     * @param id the id of the recipe.
+     * @param load the load of the recipe, which should read the entity cache first.
+     * @param <T> the type of the loaded value.
+     * @return the loaded value.
+     */
+    public <T> T load(Long id, Supplier<T> load) {
+        return loads.execute(id, () -> {
+            T value = load.get();
+            refreshAhead.loaded(id, timeToLive);
+            return value;
+        });
+    }
+
+    /**
+     * Record a read of a recipe served by the entity cache, reloading it in the background if it is about to expire.
+     *
+     * @param id the id of the recipe.
+     */
+    public void read(Long id) {
+        if (refreshAhead.shouldRefresh(id)) {
+            taskExecutor.execute(() -> loads.tryExecute(id, () -> refresh(id)));
+        }
+    }
+
+    /**
+     * Evict a recipe, its author and its ingredients from the entity cache, then reload them with a single query.
+     */
+    private void refresh(Long id) {
+        log.debug("Refreshing cached Recipe : {}", id);
+        transactionTemplate.execute(status -> {
+            Cache entityCache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+            Recipe cached = entityManager.find(Recipe.class, id);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.getAuthor() != null) {
+                entityCache.evictEntityData(Author.class,
+                    (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(cached.getAuthor()));
+            }
+            for (Ingredient ingredient : cached.getIngredients()) {
+                entityCache.evictEntityData(Ingredient.class, ingredient.getId());
+            }
+            entityCache.evictCollectionData(Recipe.class.getName() + ".ingredients", id);
+            entityCache.evictEntityData(Recipe.class, id);
+            entityManager.clear();
+            recipeRepository.findFullById(id);
+            return null;
+        });
+        refreshAhead.loaded(id, timeToLive);
+    }
+}
@@ -0,0 +1,175 @@
+package com.elmorabit.recipes.service.cache;
+
+import com.elmorabit.recipes.domain.Recipe;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the pages of the recipe listing, holding the ids of the recipes of a page and the total number of recipes, so
+ * that the recipes themselves come from the entity cache.
+ * <p>
+ * Keys include a version of the catalog, bumped by Hibernate post-commit events on {@link Recipe}, whichever service
+ * saved or deleted the recipes. A page read while a change is being committed is stored under the version it started
+ * with, so it is never served once the change is visible. Entries of older versions are left to expire.
+ * <p>
+ * The version is local to this instance and starts over on restart, so the region is kept on the heap only, whatever the
+ * tiers of the entities group: its entries never outlive the version they were stored under, nor are shared between
+ * instances.
+ */
+@Component
+public class RecipePageCache implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener {
+
+    public static final String RECIPE_PAGES_CACHE = "recipePages";
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheManager cacheManager;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public RecipePageCache(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * Get the key of a page for the current version of the catalog, it must be taken before reading the page.
+     *
+     * @param pageable the pagination information.
+     * @return the key of the page, or {@code null} if the page cannot be cached, when it is unpaged or sorted on
+     * the fields of associated entities, whose changes do not bump the version.
+     */
+    public String key(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return null;
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (order.getProperty().contains(".")) {
+                return null;
+            }
+        }
+        return version.get() + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
+
+    /**
+     * Get the ids of the recipes of a cached page.
+     *
+     * @param key the key of the page.
+     * @param pageable the pagination information of the page.
+     * @return the page of recipe ids, or {@code null} if it is not cached.
+     */
+    public Page<Long> get(String key, Pageable pageable) {
+        CachedPage page = cache().get(key, CachedPage.class);
+        if (page == null) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(page.ids.length);
+        for (long id : page.ids) {
+            ids.add(id);
+        }
+        return new PageImpl<>(ids, pageable, page.totalElements);
+    }
+
+    /**
+     * Cache the ids of the recipes of a page.
+     *
+     * @param key the key of the page, taken before it was read.
+     * @param page the page of recipes.
+     */
+    public void put(String key, Page<Recipe> page) {
+        long[] ids = page.getContent().stream().mapToLong(Recipe::getId).toArray();
+        cache().put(key, new CachedPage(ids, page.getTotalElements()));
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // the catalog did not change
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // the catalog did not change
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // the catalog did not change
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Recipe.class.equals(persister.getMappedClass());
+    }
+
+    /**
+     * Still abstract in Hibernate 5.4, the misspelled predecessor of {@link #requiresPostCommitHandling(EntityPersister)}.
+     */
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(RECIPE_PAGES_CACHE));
+    }
+
+    private static final class CachedPage implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] ids;
+
+        private final long totalElements;
+
+        private CachedPage(long[] ids, long totalElements) {
+            this.ids = ids;
+            this.totalElements = totalElements;
+        }
+    }
+}
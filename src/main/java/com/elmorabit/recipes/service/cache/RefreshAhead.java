@@ -0,0 +1,82 @@
+package com.elmorabit.recipes.service.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides when a cached key should be reloaded before it expires, with probabilistic early expiration (XFetch).
+ * <p>
+ * Each read of a key expiring at {@code expiry} triggers a refresh when {@code now - window * ln(random) >= expiry}: the
+ * probability is tiny at the start of the last {@code window} before the expiry, then grows exponentially, so that a hot
+ * key gets refreshed once, early, while a cold one is left to expire. Only the keys loaded from the database are tracked,
+ * up to {@link #MAX_KEYS} of them.
+ *
+ * @param <K> the type of the keys.
+ */
+public class RefreshAhead<K> {
+
+    static final int MAX_KEYS = 10_000;
+
+    private final ConcurrentMap<K, Long> expiries = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final DoubleSupplier random;
+
+    public RefreshAhead(Duration window) {
+        this(window, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RefreshAhead(Duration window, LongSupplier nanoTime, DoubleSupplier random) {
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.random = random;
+    }
+
+    /**
+     * Remember when a key loaded from the database expires from the cache.
+     *
+     * @param key the loaded key.
+     * @param timeToLive the time to live of the key in the cache.
+     */
+    public void loaded(K key, Duration timeToLive) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        if (expiries.size() >= MAX_KEYS) {
+            expiries.values().removeIf(expiry -> expiry <= now);
+            if (expiries.size() >= MAX_KEYS && !expiries.containsKey(key)) {
+                return;
+            }
+        }
+        expiries.put(key, now + timeToLive.toNanos());
+    }
+
+    /**
+     * Decide whether a read of a cached key should refresh it, a key is refreshed at most once per load.
+     *
+     * @param key the key read from the cache.
+     * @return whether the caller should refresh the key.
+     */
+    public boolean shouldRefresh(K key) {
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        long now = nanoTime.getAsLong();
+        if (now >= expiry) {
+            // the cached value outlived the load that was tracked, so it was put by another one
+            expiries.remove(key, expiry);
+            return false;
+        }
+        double gap = -windowNanos * Math.log(random.getAsDouble());
+        return now + gap >= expiry && expiries.remove(key, expiry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.elmorabit.recipes.service.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the concurrent loads of a key into the cache, so that only one of them reaches the database.
+ * <p>
+ * The first load of a key runs right away, the loads of the same key started meanwhile wait for it to complete, then run
+ * too, so that they are served by the cache it filled. They stop waiting after a timeout, in case the first load hangs.
+ *
+ * @param <K> the type of the keys.
+ */
+public class SingleFlight<K> {
+
+    private final ConcurrentMap<K, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    private final long timeoutNanos;
+
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Run a load, once the load of the same key in progress, if any, completed.
+     *
+     * @param key the key to load.
+     * @param load the load, which should read the cache first.
+     * @param <V> the type of the loaded value.
+     * @return the loaded value.
+     */
+    public <V> V execute(K key, Supplier<V> load) {
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch inProgress = inFlight.putIfAbsent(key, latch);
+        if (inProgress != null) {
+            try {
+                inProgress.await(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load.get();
+        }
+        try {
+            return load.get();
+        } finally {
+            inFlight.remove(key, latch);
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Run a load, unless a load of the same key is in progress.
+     *
+     * @param key the key to load.
+     * @param load the load.
+     * @return whether the load ran.
+     */
+    public boolean tryExecute(K key, Runnable load) {
+        CountDownLatch latch = new CountDownLatch(1);
+        if (inFlight.putIfAbsent(key, latch) != null) {
+            return false;
+        }
+        try {
+            load.run();
+            return true;
+        } finally {
+            inFlight.remove(key, latch);
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Caches of query results, on top of the entity cache.
+ */
+package com.elmorabit.recipes.service.cache;
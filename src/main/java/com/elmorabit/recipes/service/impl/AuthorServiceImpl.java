@@ -1,16 +1,24 @@
 package com.elmorabit.recipes.service.impl;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.service.AuthorService;
 import com.elmorabit.recipes.domain.Author;
 import com.elmorabit.recipes.repository.AuthorRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation for managing {@link Author}.
@@ -23,21 +31,63 @@ public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    public AuthorServiceImpl(AuthorRepository authorRepository, EntityManager entityManager,
+            ApplicationProperties applicationProperties) {
         this.authorRepository = authorRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public Author save(Author author) {
         log.debug("Request to save Author : {}", author);
+        if (author.getId() != null) {
+            authorRepository.findById(author.getId()).ifPresent(persisted -> {
+                // The identity and modification date are not part of the API, and updates without a version
+                // overwrite the author, as they did before it was versioned
+                author.setUuid(persisted.getUuid());
+                author.setLastModifiedDate(persisted.getLastModifiedDate());
+                if (author.getVersion() == null) {
+                    author.setVersion(persisted.getVersion());
+                }
+            });
+        }
         return authorRepository.save(author);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Author> findAll() {
-        log.debug("Request to get all Authors");
-        return authorRepository.findAll();
+    public Slice<Author> findAll(String namePrefix, Long afterId, int size) {
+        log.debug("Request to get Authors after {}", afterId);
+        int pageSize = Math.min(size, applicationProperties.getListing().getMaxPageSize());
+        // Read one more author than requested to know if there is a next slice
+        List<Author> authors = authorRepository.findAllAfter(namePrefix, afterId, pageSize + 1);
+        boolean hasNext = authors.size() > pageSize;
+        if (hasNext) {
+            authors = authors.subList(0, pageSize);
+        }
+        return new SliceImpl<>(authors, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Author> consumer) {
+        log.debug("Request to export all Authors");
+        int batchSize = applicationProperties.getExport().getBatchSize();
+        try (Stream<Author> authors = authorRepository.streamAllByOrderById()) {
+            Iterator<Author> iterator = authors.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % batchSize == 0) {
+                    // Detach the exported authors so that the persistence context does not grow with the export
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
 
@@ -1,16 +1,24 @@
 package com.elmorabit.recipes.service.impl;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.service.IngredientService;
 import com.elmorabit.recipes.domain.Ingredient;
 import com.elmorabit.recipes.repository.IngredientRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation for managing {@link Ingredient}.
@@ -23,21 +31,63 @@ public class IngredientServiceImpl implements IngredientService {
 
     private final IngredientRepository ingredientRepository;
 
-    public IngredientServiceImpl(IngredientRepository ingredientRepository) {
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    public IngredientServiceImpl(IngredientRepository ingredientRepository, EntityManager entityManager,
+            ApplicationProperties applicationProperties) {
         this.ingredientRepository = ingredientRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public Ingredient save(Ingredient ingredient) {
         log.debug("Request to save Ingredient : {}", ingredient);
+        if (ingredient.getId() != null) {
+            ingredientRepository.findById(ingredient.getId()).ifPresent(persisted -> {
+                // The identity and modification date are not part of the API, and updates without a version
+                // overwrite the ingredient, as they did before it was versioned
+                ingredient.setUuid(persisted.getUuid());
+                ingredient.setLastModifiedDate(persisted.getLastModifiedDate());
+                if (ingredient.getVersion() == null) {
+                    ingredient.setVersion(persisted.getVersion());
+                }
+            });
+        }
         return ingredientRepository.save(ingredient);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Ingredient> findAll() {
-        log.debug("Request to get all Ingredients");
-        return ingredientRepository.findAll();
+    public Slice<Ingredient> findAll(String namePrefix, Long recipeId, String unit, Long afterId, int size) {
+        log.debug("Request to get Ingredients after {}", afterId);
+        int pageSize = Math.min(size, applicationProperties.getListing().getMaxPageSize());
+        // Read one more ingredient than requested to know if there is a next slice
+        List<Ingredient> ingredients = ingredientRepository.findAllAfter(namePrefix, recipeId, unit, afterId, pageSize + 1);
+        boolean hasNext = ingredients.size() > pageSize;
+        if (hasNext) {
+            ingredients = ingredients.subList(0, pageSize);
+        }
+        return new SliceImpl<>(ingredients, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Ingredient> consumer) {
+        log.debug("Request to export all Ingredients");
+        int batchSize = applicationProperties.getExport().getBatchSize();
+        try (Stream<Ingredient> ingredients = ingredientRepository.streamAllByOrderById()) {
+            Iterator<Ingredient> iterator = ingredients.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % batchSize == 0) {
+                    // Detach the exported ingredients so that the persistence context does not grow with the export
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
 
@@ -45,7 +95,7 @@ public class IngredientServiceImpl implements IngredientService {
     @Transactional(readOnly = true)
     public Optional<Ingredient> findOne(Long id) {
         log.debug("Request to get Ingredient : {}", id);
-        return ingredientRepository.findById(id);
+        return ingredientRepository.findWithRecipeById(id);
     }
 
     @Override
@@ -1,17 +1,52 @@
 package com.elmorabit.recipes.service.impl;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.service.RecipeCursor;
 import com.elmorabit.recipes.service.RecipeService;
+import com.elmorabit.recipes.service.RecipeView;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
 import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.IngredientRepository;
 import com.elmorabit.recipes.repository.RecipeRepository;
+import com.elmorabit.recipes.service.cache.RecipeCacheLoader;
+import com.elmorabit.recipes.service.cache.RecipePageCache;
+import com.elmorabit.recipes.service.search.IngredientCoverageIndex;
+import com.elmorabit.recipes.service.search.RecipeSearchIndex;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation for managing {@link Recipe}.
@@ -24,29 +59,336 @@ public class RecipeServiceImpl implements RecipeService {
 
     private final RecipeRepository recipeRepository;
 
-    public RecipeServiceImpl(RecipeRepository recipeRepository) {
+    private final IngredientRepository ingredientRepository;
+
+    private final RecipeSearchIndex recipeSearchIndex;
+
+    private final IngredientCoverageIndex ingredientCoverageIndex;
+
+    private final RecipePageCache recipePageCache;
+
+    private final RecipeCacheLoader recipeCacheLoader;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    public RecipeServiceImpl(RecipeRepository recipeRepository, IngredientRepository ingredientRepository,
+            RecipeSearchIndex recipeSearchIndex, IngredientCoverageIndex ingredientCoverageIndex, RecipePageCache recipePageCache,
+            RecipeCacheLoader recipeCacheLoader, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            ApplicationProperties applicationProperties) {
         this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.ingredientCoverageIndex = ingredientCoverageIndex;
+        this.recipePageCache = recipePageCache;
+        this.recipeCacheLoader = recipeCacheLoader;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public Recipe save(Recipe recipe) {
         log.debug("Request to save Recipe : {}", recipe);
+        if (recipe.getId() != null) {
+            recipeRepository.findById(recipe.getId()).ifPresent(persisted -> {
+                // The identity and modification date are not part of the API, and updates without a version
+                // overwrite the recipe, as they did before it was versioned
+                recipe.setUuid(persisted.getUuid());
+                recipe.setLastModifiedDate(persisted.getLastModifiedDate());
+                if (recipe.getVersion() == null) {
+                    recipe.setVersion(persisted.getVersion());
+                }
+            });
+        }
         return recipeRepository.save(recipe);
     }
 
+    @Override
+    public Optional<Recipe> saveWithIngredients(Recipe recipe) {
+        log.debug("Request to save Recipe with its ingredients : {}", recipe);
+        Optional<Recipe> existing = recipeRepository.findFullById(recipe.getId());
+        existing.ifPresent(persisted -> {
+            if (!Objects.equals(persisted.getVersion(), recipe.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Recipe.class, recipe.getId());
+            }
+            boolean recipeChanged = copyFields(recipe, persisted);
+            boolean ingredientsChanged = mergeIngredients(recipe.getIngredients(), persisted);
+            if (ingredientsChanged && !recipeChanged) {
+                // Hibernate only versions the recipe row and the membership of its ingredients,
+                // so changes to existing ingredients alone must modify the recipe to bump its version.
+                persisted.setLastModifiedDate(Instant.now());
+            }
+        });
+        return existing;
+    }
+
+    /**
+     * Copy the fields of a submitted recipe to the persisted one.
+     *
+     * @return whether a field changed.
+     */
+    private boolean copyFields(Recipe submitted, Recipe persisted) {
+        Long authorId = submitted.getAuthor() == null ? null : submitted.getAuthor().getId();
+        Long persistedAuthorId = persisted.getAuthor() == null ? null : persisted.getAuthor().getId();
+        boolean changed = !Objects.equals(submitted.getTitle(), persisted.getTitle())
+            || !Objects.equals(submitted.getImage(), persisted.getImage())
+            || !Objects.equals(submitted.getDescription(), persisted.getDescription())
+            || !Objects.equals(authorId, persistedAuthorId);
+        if (changed) {
+            persisted.setTitle(submitted.getTitle());
+            persisted.setImage(submitted.getImage());
+            persisted.setDescription(submitted.getDescription());
+            persisted.setAuthor(authorId == null ? null : entityManager.getReference(Author.class, authorId));
+        }
+        return changed;
+    }
+
+    /**
+     * Apply the submitted ingredients to the persisted recipe, leaving untouched the ones that did not change
+     * so that only the required inserts, updates and deletes are flushed, in batches.
+     *
+     * @return whether an ingredient was created, updated or deleted.
+     */
+    private boolean mergeIngredients(Set<Ingredient> submitted, Recipe persisted) {
+        Map<Long, Ingredient> removed = persisted.getIngredients().stream()
+            .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        List<Ingredient> added = new ArrayList<>();
+        boolean changed = false;
+        for (Ingredient ingredient : submitted) {
+            if (ingredient.getId() == null) {
+                added.add(new Ingredient().name(ingredient.getName()).quantity(ingredient.getQuantity()).unit(ingredient.getUnit()));
+                continue;
+            }
+            Ingredient current = removed.remove(ingredient.getId());
+            if (current == null) {
+                throw new IllegalArgumentException("Ingredient " + ingredient.getId() + " is not an ingredient of recipe " + persisted.getId());
+            }
+            if (!Objects.equals(ingredient.getName(), current.getName())
+                || !Objects.equals(ingredient.getQuantity(), current.getQuantity())
+                || !Objects.equals(ingredient.getUnit(), current.getUnit())) {
+                current.name(ingredient.getName()).quantity(ingredient.getQuantity()).setUnit(ingredient.getUnit());
+                changed = true;
+            }
+        }
+        for (Ingredient ingredient : removed.values()) {
+            persisted.removeIngredients(ingredient);
+        }
+        ingredientRepository.deleteAll(removed.values());
+        for (Ingredient ingredient : added) {
+            persisted.addIngredients(ingredient);
+        }
+        ingredientRepository.saveAll(added);
+        return changed || !removed.isEmpty() || !added.isEmpty();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Recipe> findAll(Pageable pageable) {
-        log.debug("Request to get all Recipes");
-        return recipeRepository.findAll(pageable);
+        return findAll(pageable, RecipeView.WITH_AUTHOR);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Recipe> findAll(Pageable pageable, RecipeView view) {
+        log.debug("Request to get all Recipes with view {}", view);
+        // Pages read within a read-write transaction may include its uncommitted changes, they are not cached
+        String key = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? recipePageCache.key(pageable) : null;
+        Page<Long> cachedIds = key == null ? null : recipePageCache.get(key, pageable);
+        if (cachedIds != null) {
+            return new PageImpl<>(findByIds(cachedIds.getContent(), view), pageable, cachedIds.getTotalElements());
+        }
+        Page<Recipe> page;
+        switch (view) {
+            case SUMMARY:
+                page = recipeRepository.findAll(pageable);
+                break;
+            case WITH_AUTHOR:
+                page = recipeRepository.findAllWithAuthorBy(pageable);
+                break;
+            default:
+                // Paginating over a collection fetch would be done in memory, so page the ids first
+                // then fetch the recipes of that page with their collections.
+                Page<Long> ids = recipeRepository.findAllIds(pageable);
+                page = new PageImpl<>(ids.hasContent() ? findFullByIds(ids.getContent()) : Collections.emptyList(), pageable,
+                    ids.getTotalElements());
+        }
+        if (key != null) {
+            recipePageCache.put(key, page);
+        }
+        return page;
     }
 
+    /**
+     * Load recipes, keeping the order of the ids.
+     * <p>
+     * When the recipes, and the author and ingredients required by the view, are all in the entity cache, they are read
+     * from it without any query. Otherwise they are fetched with one query.
+     */
+    private List<Recipe> findByIds(List<Long> ids, RecipeView view) {
+        Optional<List<Recipe>> cached = findCachedByIds(ids, view);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        switch (view) {
+            case SUMMARY:
+                return orderByIds(ids, recipeRepository.findAllById(ids));
+            case WITH_AUTHOR:
+                return orderByIds(ids, recipeRepository.findWithAuthorByIdIn(ids));
+            default:
+                return findFullByIds(ids);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Recipe> findAllAfter(RecipeCursor cursor, int size, RecipeView view) {
+        log.debug("Request to get Recipes after {} with view {}", cursor.getLastId(), view);
+        String entityGraph = view == RecipeView.WITH_AUTHOR ? Recipe.WITH_AUTHOR_GRAPH : Recipe.SUMMARY_GRAPH;
+        // Read one more recipe than requested to know if there is a next slice
+        List<Recipe> recipes = recipeRepository.findAllAfter(cursor.getOrder(), cursor.getLastValue(), cursor.getLastId(),
+            size + 1, entityGraph);
+        boolean hasNext = recipes.size() > size;
+        if (hasNext) {
+            recipes = recipes.subList(0, size);
+        }
+        if (view == RecipeView.FULL && !recipes.isEmpty()) {
+            recipes = findFullByIds(recipes.stream().map(Recipe::getId).collect(Collectors.toList()));
+        }
+        return new SliceImpl<>(recipes, PageRequest.of(0, size, Sort.by(cursor.getOrder())), hasNext);
+    }
 
     @Override
     @Transactional(readOnly = true)
+    public void exportAll(Consumer<Recipe> consumer) {
+        log.debug("Request to export all Recipes");
+        int batchSize = applicationProperties.getExport().getBatchSize();
+        List<Recipe> batch = new ArrayList<>(batchSize);
+        try (Stream<Recipe> recipes = recipeRepository.streamAllByOrderById()) {
+            Iterator<Recipe> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    // Fetch the author and ingredients of the whole batch at once, then detach it
+                    // so that the persistence context does not grow with the export.
+                    findFullByIds(batch.stream().map(Recipe::getId).collect(Collectors.toList())).forEach(consumer);
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Recipe> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Recipes for query {}", query);
+        return loadHits(recipeSearchIndex.search(query, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Recipe> findAllByIngredients(List<String> ingredientNames, Pageable pageable) {
+        log.debug("Request to get a page of Recipes using ingredients {}", ingredientNames);
+        return loadHits(ingredientCoverageIndex.findByIngredients(ingredientNames, pageable));
+    }
+
+    /**
+     * Load the recipes of a page of ids, keeping the order of the ids.
+     */
+    private Page<Recipe> loadHits(Page<Long> hits) {
+        if (!hits.hasContent()) {
+            return new PageImpl<>(Collections.emptyList(), hits.getPageable(), hits.getTotalElements());
+        }
+        List<Recipe> content = orderByIds(hits.getContent(), recipeRepository.findWithAuthorByIdIn(hits.getContent()));
+        return new PageImpl<>(content, hits.getPageable(), hits.getTotalElements());
+    }
+
+    /**
+     * Read recipes from the entity cache, with the author and ingredients required by the view.
+     *
+     * @return the recipes, without the ones that no longer exist, or empty if one of them is not fully cached.
+     */
+    private Optional<List<Recipe>> findCachedByIds(List<Long> ids, RecipeView view) {
+        org.hibernate.Cache entityCache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (!ids.stream().allMatch(id -> entityCache.containsEntity(Recipe.class, id))) {
+            return Optional.empty();
+        }
+        List<Recipe> recipes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Recipe recipe = entityManager.find(Recipe.class, id);
+            if (recipe != null) {
+                recipes.add(recipe);
+            }
+        }
+        if (!recipes.stream().allMatch(recipe -> isCached(entityCache, recipe, view))) {
+            return Optional.empty();
+        }
+        for (Recipe recipe : recipes) {
+            if (view != RecipeView.SUMMARY) {
+                Hibernate.initialize(recipe.getAuthor());
+            }
+            if (view == RecipeView.FULL) {
+                Hibernate.initialize(recipe.getIngredients());
+            }
+        }
+        return Optional.of(recipes);
+    }
+
+    private boolean isCached(org.hibernate.Cache entityCache, Recipe recipe, RecipeView view) {
+        if (view != RecipeView.SUMMARY && recipe.getAuthor() != null) {
+            Object authorId = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(recipe.getAuthor());
+            if (!entityCache.containsEntity(Author.class, (Long) authorId)) {
+                return false;
+            }
+        }
+        return view != RecipeView.FULL || entityCache.containsCollection(Recipe.class.getName() + ".ingredients", recipe.getId());
+    }
+
+    /**
+     * Fetch recipes with their author and ingredients, keeping the order of the ids.
+     */
+    private List<Recipe> findFullByIds(List<Long> ids) {
+        return orderByIds(ids, recipeRepository.findDistinctFullByIdIn(ids));
+    }
+
+    private List<Recipe> orderByIds(List<Long> ids, List<Recipe> recipes) {
+        Map<Long, Recipe> recipesById = recipes.stream()
+            .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        return ids.stream()
+            .map(recipesById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Recipe> findOne(Long id) {
-        log.debug("Request to get Recipe : {}", id);
-        return recipeRepository.findById(id);
+        return findOne(id, RecipeView.WITH_AUTHOR);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Recipe> findOne(Long id, RecipeView view) {
+        log.debug("Request to get Recipe : {} with view {}", id, view);
+        List<Long> ids = Collections.singletonList(id);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return findByIds(ids, view).stream().findFirst();
+        }
+        // The entity cache only serves the sessions started after its entries were put, so the cache is read in its own
+        // transaction, and a read waiting for the concurrent load of the same recipe starts a new one once it completed.
+        Optional<List<Recipe>> cached = readOnlyTransactionTemplate.execute(status -> findCachedByIds(ids, view));
+        if (cached.isPresent()) {
+            recipeCacheLoader.read(id);
+            return cached.get().stream().findFirst();
+        }
+        return recipeCacheLoader.load(id, () ->
+            readOnlyTransactionTemplate.execute(status -> findByIds(ids, view).stream().findFirst()));
     }
 
     @Override
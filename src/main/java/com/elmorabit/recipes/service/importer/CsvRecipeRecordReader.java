@@ -0,0 +1,158 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads recipes from RFC 4180 CSV, one recipe per row.
+ * <p>
+ * The first row is a header naming the columns, in any order: {@code title} is required, {@code image},
+ * {@code description}, {@code author}, {@code author_website} and {@code ingredients} are optional, other columns are ignored.
+ * The {@code ingredients} column holds the ingredients separated by {@code ;}, each one written {@code name:quantity:unit}
+ * where the quantity and unit may be omitted.
+ */
+public class CsvRecipeRecordReader implements RecipeRecordReader {
+
+    private static final String TITLE = "title";
+    private static final String IMAGE = "image";
+    private static final String DESCRIPTION = "description";
+    private static final String AUTHOR = "author";
+    private static final String AUTHOR_WEBSITE = "author_website";
+    private static final String INGREDIENTS = "ingredients";
+
+    private final Reader input;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private int next;
+
+    /**
+     * Create a reader, reading the header row right away.
+     *
+     * @param input the CSV input, it should be buffered.
+     * @throws IOException if the input cannot be read.
+     * @throws IllegalArgumentException if the header row has no {@code title} column.
+     */
+    public CsvRecipeRecordReader(Reader input) throws IOException {
+        this.input = input;
+        this.next = input.read();
+        List<String> header = readRow();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (!columns.containsKey(TITLE)) {
+            throw new IllegalArgumentException("The CSV header has no " + TITLE + " column");
+        }
+    }
+
+    @Override
+    public Recipe read() throws IOException {
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isEmpty());
+
+        Recipe recipe = new Recipe()
+            .title(column(row, TITLE))
+            .image(column(row, IMAGE))
+            .description(column(row, DESCRIPTION));
+        String authorName = column(row, AUTHOR);
+        if (authorName != null) {
+            recipe.setAuthor(new Author().name(authorName).website(column(row, AUTHOR_WEBSITE)));
+        }
+        String ingredients = column(row, INGREDIENTS);
+        if (ingredients != null) {
+            for (String entry : ingredients.split(";")) {
+                if (!entry.trim().isEmpty()) {
+                    recipe.addIngredients(parseIngredient(entry));
+                }
+            }
+        }
+        return recipe;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private String column(List<String> row, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.size() || row.get(index).isEmpty()) {
+            return null;
+        }
+        return row.get(index);
+    }
+
+    private Ingredient parseIngredient(String entry) {
+        String[] parts = entry.split(":", 3);
+        Ingredient ingredient = new Ingredient().name(parts[0].trim());
+        if (parts.length > 1 && !parts[1].trim().isEmpty()) {
+            try {
+                ingredient.setQuantity(Integer.valueOf(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidRecipeRecordException("Invalid quantity for ingredient " + parts[0].trim() + ": " + parts[1].trim());
+            }
+        }
+        if (parts.length > 2 && !parts[2].trim().isEmpty()) {
+            ingredient.setUnit(parts[2].trim());
+        }
+        return ingredient;
+    }
+
+    /**
+     * Read the fields of the next row, quoted fields may contain separators, line breaks and doubled quotes.
+     *
+     * @return the fields of the row, or {@code null} at the end of the input.
+     */
+    private List<String> readRow() throws IOException {
+        if (next == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = next;
+            next = input.read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new InvalidRecipeRecordException("Unterminated quoted field");
+                } else if (c == '"' && next == '"') {
+                    field.append('"');
+                    next = input.read();
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' && next == '\n') {
+                continue;
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.elmorabit.recipes.service.importer;
+
+/**
+ * Thrown when an imported record cannot be read or is not a valid recipe.
+ * <p>
+ * The record is rejected, and the import goes on with the next one.
+ */
+public class InvalidRecipeRecordException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRecipeRecordException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.domain.Recipe;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads recipes from newline-delimited JSON, one recipe per line, in the format of the recipe export.
+ * <p>
+ * Blank lines are ignored.
+ */
+public class NdjsonRecipeRecordReader implements RecipeRecordReader {
+
+    private final BufferedReader input;
+
+    private final ObjectReader objectReader;
+
+    public NdjsonRecipeRecordReader(BufferedReader input, ObjectReader objectReader) {
+        this.input = input;
+        this.objectReader = objectReader.forType(Recipe.class);
+    }
+
+    @Override
+    public Recipe read() throws IOException {
+        String line;
+        do {
+            line = input.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        try {
+            return objectReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRecipeRecordException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,113 @@
+package com.elmorabit.recipes.service.importer;
+
+import java.util.List;
+
+/**
+ * Progress of a recipe import, reported once per committed batch and once at the end of the import.
+ */
+public class RecipeImportProgress {
+
+    /**
+     * State of an import.
+     */
+    public enum Status {
+        IN_PROGRESS, COMPLETED, FAILED
+    }
+
+    private final Status status;
+
+    private final int batch;
+
+    private final long position;
+
+    private final long imported;
+
+    private final long rejected;
+
+    private final long elapsedMillis;
+
+    private final List<String> rejections;
+
+    private final String error;
+
+    public RecipeImportProgress(Status status, int batch, long position, long imported, long rejected, long elapsedMillis,
+            List<String> rejections, String error) {
+        this.status = status;
+        this.batch = batch;
+        this.position = position;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejections = rejections;
+        this.error = error;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the number of batches committed so far by this import.
+     */
+    public int getBatch() {
+        return batch;
+    }
+
+    /**
+     * @return the number of records handled so far, committed or rejected; an interrupted import resumes by skipping them.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the number of recipes imported so far by this import.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return the number of records rejected so far by this import.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the number of records handled per second since the beginning of the import, skipped ones excluded.
+     */
+    public long getRecordsPerSecond() {
+        return elapsedMillis == 0 ? 0 : (imported + rejected) * 1000 / elapsedMillis;
+    }
+
+    /**
+     * @return the reasons of the records rejected in the last batch.
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    /**
+     * @return the reason of the failure of the import, if it failed.
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "RecipeImportProgress{" +
+            "status=" + status +
+            ", batch=" + batch +
+            ", position=" + position +
+            ", imported=" + imported +
+            ", rejected=" + rejected +
+            ", elapsedMillis=" + elapsedMillis +
+            "}";
+    }
+}
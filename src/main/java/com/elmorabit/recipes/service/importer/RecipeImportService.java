@@ -0,0 +1,219 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.AuthorRepository;
+import com.elmorabit.recipes.repository.IngredientRepository;
+import com.elmorabit.recipes.repository.RecipeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Service importing recipes, with their ingredients and authors, in batches.
+ * <p>
+ * Each batch is validated, then saved and committed in its own transaction, with the persistence context cleared afterwards,
+ * so that memory usage does not depend on the size of the import. Authors are de-duplicated by name, against the database
+ * and within the import. A failed import can be resumed by skipping the records handled by its last committed batch.
+ */
+@Service
+public class RecipeImportService {
+
+    private static final int MAX_LENGTH = 255;
+
+    private final Logger log = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private final RecipeRepository recipeRepository;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final AuthorRepository authorRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    public RecipeImportService(RecipeRepository recipeRepository, IngredientRepository ingredientRepository,
+            AuthorRepository authorRepository, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            ApplicationProperties applicationProperties) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.authorRepository = authorRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Import all the records of a reader.
+     *
+     * @param reader the reader of the records to import.
+     * @param skip the number of records to skip, the position reported by the last committed batch of an interrupted import.
+     * @param progressListener the listener notified after each committed batch.
+     * @return the final progress of the import, {@link RecipeImportProgress.Status#COMPLETED completed} or
+     * {@link RecipeImportProgress.Status#FAILED failed}.
+     * @throws IOException if the records cannot be read.
+     */
+    public RecipeImportProgress importRecipes(RecipeRecordReader reader, long skip, Consumer<RecipeImportProgress> progressListener)
+            throws IOException {
+        log.debug("Request to import Recipes, skipping {} records", skip);
+        int batchSize = applicationProperties.getBulkImport().getBatchSize();
+        long start = System.currentTimeMillis();
+        Map<String, Long> authorIds = new HashMap<>();
+        List<Recipe> batch = new ArrayList<>(batchSize);
+        List<String> rejections = new ArrayList<>();
+        long position = 0;
+        long committed = skip;
+        long imported = 0;
+        long rejected = 0;
+        int batches = 0;
+        boolean end = false;
+        while (!end) {
+            Recipe recipe = null;
+            try {
+                recipe = reader.read();
+                end = recipe == null;
+            } catch (InvalidRecipeRecordException e) {
+                if (position >= skip) {
+                    rejections.add("Record " + (position + 1) + ": " + e.getMessage());
+                }
+            }
+            if (!end) {
+                position++;
+                if (position <= skip) {
+                    continue;
+                }
+                if (recipe != null) {
+                    String violation = validate(recipe);
+                    if (violation == null) {
+                        batch.add(recipe);
+                    } else {
+                        rejections.add("Record " + position + ": " + violation);
+                    }
+                }
+            }
+            if ((end && position > committed) || batch.size() + rejections.size() == batchSize) {
+                try {
+                    // Only remember the authors of a batch once it is committed
+                    authorIds.putAll(transactionTemplate.execute(status -> saveBatch(batch, authorIds)));
+                } catch (RuntimeException e) {
+                    log.warn("Recipe import failed after {} records: {}", committed, e.getMessage());
+                    return new RecipeImportProgress(RecipeImportProgress.Status.FAILED, batches, committed, imported, rejected,
+                        System.currentTimeMillis() - start, Collections.emptyList(), e.getMessage());
+                }
+                batches++;
+                committed = position;
+                imported += batch.size();
+                rejected += rejections.size();
+                RecipeImportProgress progress = new RecipeImportProgress(RecipeImportProgress.Status.IN_PROGRESS, batches, committed,
+                    imported, rejected, System.currentTimeMillis() - start, new ArrayList<>(rejections), null);
+                log.debug("Recipe import progress: {}", progress);
+                progressListener.accept(progress);
+                batch.clear();
+                rejections.clear();
+            }
+        }
+        RecipeImportProgress progress = new RecipeImportProgress(RecipeImportProgress.Status.COMPLETED, batches, committed,
+            imported, rejected, System.currentTimeMillis() - start, Collections.emptyList(), null);
+        log.info("Imported {} recipes, rejected {} records, in {} ms", imported, rejected, progress.getElapsedMillis());
+        return progress;
+    }
+
+    /**
+     * Save a batch of recipes, then detach them.
+     * <p>
+     * Authors are looked up by name with one query per batch, and the ids of the authors seen so far are kept
+     * for the following batches.
+     *
+     * @return the ids of the authors first seen in the batch, by name.
+     */
+    private Map<String, Long> saveBatch(List<Recipe> recipes, Map<String, Long> authorIds) {
+        Set<String> unknownNames = new HashSet<>();
+        for (Recipe recipe : recipes) {
+            if (recipe.getAuthor() != null && !authorIds.containsKey(recipe.getAuthor().getName())) {
+                unknownNames.add(recipe.getAuthor().getName());
+            }
+        }
+        Map<String, Long> batchAuthorIds = new HashMap<>();
+        if (!unknownNames.isEmpty()) {
+            for (Author author : authorRepository.findByNameIn(unknownNames)) {
+                batchAuthorIds.merge(author.getName(), author.getId(), Math::min);
+            }
+        }
+
+        // Records of the export carry the id and version of the exported rows: both are cleared so that every entity is
+        // persisted as a new one, rather than merged. The uuids are never read from the records, so they are new already.
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            recipe.setId(null);
+            recipe.setVersion(null);
+            Author author = recipe.getAuthor();
+            if (author != null) {
+                Long authorId = authorIds.getOrDefault(author.getName(), batchAuthorIds.get(author.getName()));
+                if (authorId == null) {
+                    author.setId(null);
+                    author.setVersion(null);
+                    authorId = authorRepository.save(author).getId();
+                    batchAuthorIds.put(author.getName(), authorId);
+                }
+                recipe.setAuthor(authorRepository.getOne(authorId));
+            }
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                ingredient.setId(null);
+                ingredient.setVersion(null);
+                ingredient.setRecipe(recipe);
+                ingredients.add(ingredient);
+            }
+        }
+        recipeRepository.saveAll(recipes);
+        ingredientRepository.saveAll(ingredients);
+        entityManager.flush();
+        entityManager.clear();
+        return batchAuthorIds;
+    }
+
+    private String validate(Recipe recipe) {
+        if (recipe.getTitle() == null || recipe.getTitle().trim().isEmpty()) {
+            return "The title is required";
+        }
+        if (tooLong(recipe.getTitle()) || tooLong(recipe.getImage()) || tooLong(recipe.getDescription())) {
+            return "The title, image and description must be at most " + MAX_LENGTH + " characters long";
+        }
+        if (recipe.getAuthor() != null) {
+            if (recipe.getAuthor().getName() == null || recipe.getAuthor().getName().trim().isEmpty()) {
+                return "The author name is required";
+            }
+            if (tooLong(recipe.getAuthor().getName()) || tooLong(recipe.getAuthor().getWebsite())) {
+                return "The author name and website must be at most " + MAX_LENGTH + " characters long";
+            }
+        }
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getName() == null || ingredient.getName().trim().isEmpty()) {
+                return "The ingredient name is required";
+            }
+            if (tooLong(ingredient.getName()) || tooLong(ingredient.getUnit())) {
+                return "The ingredient name and unit must be at most " + MAX_LENGTH + " characters long";
+            }
+            if (ingredient.getQuantity() != null && ingredient.getQuantity() < 0) {
+                return "The quantity of " + ingredient.getName() + " must not be negative";
+            }
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_LENGTH;
+    }
+}
@@ -0,0 +1,21 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.domain.Recipe;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the recipes of an import, one record at a time.
+ */
+public interface RecipeRecordReader extends Closeable {
+
+    /**
+     * Read the next record.
+     *
+     * @return the recipe of the next record, with its author and ingredients, or {@code null} at the end of the input.
+     * @throws InvalidRecipeRecordException if the record cannot be parsed; the next call reads the following record.
+     * @throws IOException if the input cannot be read.
+     */
+    Recipe read() throws IOException;
+}
@@ -0,0 +1,4 @@
+/**
+ * Bulk import of recipes, with their ingredients and authors.
+ */
+package com.elmorabit.recipes.service.importer;
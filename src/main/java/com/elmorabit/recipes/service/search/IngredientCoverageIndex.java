@@ -0,0 +1,262 @@
+package com.elmorabit.recipes.service.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index answering "what can I cook with these ingredients".
+ * <p>
+ * Every recipe gets a dense ordinal, and every normalized ingredient name maps to a {@link BitSet} of the
+ * ordinals of the recipes using it. A query walks the bit sets of the requested ingredients and ranks the
+ * recipes on primitive arrays only, so it never touches the database nor boxes recipe ids.
+ * <p>
+ * The ordinal of a recipe is released when its last ingredient is removed, and the ordinals are compacted, keeping their
+ * order, once most of them are released, so that deleted recipes do not grow the arrays and bit sets forever.
+ * <p>
+ * The index is rebuilt from the database and updated when ingredients are committed by the
+ * {@link RecipeSearchIndexSynchronizer}, together with the {@link RecipeSearchIndex}.
+ */
+@Component
+public class IngredientCoverageIndex {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, BitSet> recipesByIngredient = new HashMap<>();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private long[] recipeIds = new long[INITIAL_CAPACITY];
+
+    private int[] ingredientCounts = new int[INITIAL_CAPACITY];
+
+    // The ingredient names of each ordinal, null for the released ordinals
+    private final List<Map<String, Integer>> recipeIngredients = new ArrayList<>();
+
+    private int releasedOrdinals;
+
+    private final Map<Long, IngredientEntry> ingredients = new HashMap<>();
+
+    /**
+     * Add or replace an ingredient, moving it to another recipe if its recipe changed.
+     *
+     * @param ingredientId the id of the ingredient.
+     * @param recipeId the id of the recipe owning the ingredient, or {@code null} if it has none.
+     * @param name the ingredient name.
+     */
+    public void index(long ingredientId, Long recipeId, String name) {
+        String key = TextAnalyzer.normalize(name);
+        lock.writeLock().lock();
+        try {
+            detach(ingredientId);
+            if (recipeId != null && !key.isEmpty()) {
+                int ordinal = ordinal(recipeId);
+                ingredients.put(ingredientId, new IngredientEntry(ordinal, key));
+                if (recipeIngredients.get(ordinal).merge(key, 1, Integer::sum) == 1) {
+                    recipesByIngredient.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+                    ingredientCounts[ordinal]++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an ingredient from the recipe owning it.
+     *
+     * @param ingredientId the id of the ingredient.
+     */
+    public void remove(long ingredientId) {
+        lock.writeLock().lock();
+        try {
+            detach(ingredientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every ingredient and recipe from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            recipesByIngredient.clear();
+            ordinals.clear();
+            recipeIngredients.clear();
+            ingredients.clear();
+            recipeIds = new long[INITIAL_CAPACITY];
+            ingredientCounts = new int[INITIAL_CAPACITY];
+            releasedOrdinals = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the recipes using at least one of the given ingredients.
+     * <p>
+     * Recipes covering the most requested ingredients come first; ties are broken by the number of
+     * ingredients still missing, then by the order in which recipes were indexed.
+     *
+     * @param names the names of the available ingredients.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of matching recipe ids.
+     */
+    public Page<Long> findByIngredients(Collection<String> names, Pageable pageable) {
+        Set<String> keys = new HashSet<>();
+        for (String name : names) {
+            String key = TextAnalyzer.normalize(name);
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            int[] matched = new int[recipeIngredients.size()];
+            BitSet candidates = new BitSet(recipeIngredients.size());
+            for (String key : keys) {
+                BitSet recipes = recipesByIngredient.get(key);
+                if (recipes != null) {
+                    for (int ordinal = recipes.nextSetBit(0); ordinal >= 0; ordinal = recipes.nextSetBit(ordinal + 1)) {
+                        matched[ordinal]++;
+                    }
+                    candidates.or(recipes);
+                }
+            }
+
+            // Sort keys pack (covered desc, missing asc, ordinal asc) into a single primitive long.
+            long[] ranking = new long[candidates.cardinality()];
+            int i = 0;
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                long covered = Math.min(matched[ordinal], MAX_COUNT);
+                long missing = Math.min(ingredientCounts[ordinal] - matched[ordinal], MAX_COUNT);
+                ranking[i++] = (MAX_COUNT - covered) << 48 | missing << 32 | ordinal;
+            }
+            Arrays.sort(ranking);
+
+            int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranking.length) : 0;
+            int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranking.length) : ranking.length;
+            List<Long> ids = new ArrayList<>(to - from);
+            for (int j = from; j < to; j++) {
+                ids.add(recipeIds[(int) ranking[j]]);
+            }
+            return new PageImpl<>(ids, pageable, ranking.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int ordinal(long recipeId) {
+        Integer existing = ordinals.get(recipeId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = recipeIngredients.size();
+        if (ordinal == recipeIds.length) {
+            recipeIds = Arrays.copyOf(recipeIds, ordinal * 2);
+            ingredientCounts = Arrays.copyOf(ingredientCounts, ordinal * 2);
+        }
+        recipeIds[ordinal] = recipeId;
+        ordinals.put(recipeId, ordinal);
+        recipeIngredients.add(new HashMap<>());
+        return ordinal;
+    }
+
+    private void detach(long ingredientId) {
+        IngredientEntry previous = ingredients.remove(ingredientId);
+        if (previous != null) {
+            Map<String, Integer> names = recipeIngredients.get(previous.ordinal);
+            if (names.merge(previous.key, -1, Integer::sum) == 0) {
+                names.remove(previous.key);
+                ingredientCounts[previous.ordinal]--;
+                BitSet recipes = recipesByIngredient.get(previous.key);
+                recipes.clear(previous.ordinal);
+                if (recipes.isEmpty()) {
+                    recipesByIngredient.remove(previous.key);
+                }
+                if (names.isEmpty()) {
+                    release(previous.ordinal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the ordinal of a recipe left without ingredients, compacting the ordinals once more than half of them are
+     * released.
+     */
+    private void release(int ordinal) {
+        ordinals.remove(recipeIds[ordinal]);
+        recipeIngredients.set(ordinal, null);
+        releasedOrdinals++;
+        if (releasedOrdinals > INITIAL_CAPACITY && releasedOrdinals * 2 > recipeIngredients.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber the recipes left with consecutive ordinals, in the same order, and shrink the arrays.
+     */
+    private void compact() {
+        int[] renumbered = new int[recipeIngredients.size()];
+        int live = 0;
+        for (int ordinal = 0; ordinal < recipeIngredients.size(); ordinal++) {
+            Map<String, Integer> names = recipeIngredients.get(ordinal);
+            if (names != null) {
+                renumbered[ordinal] = live;
+                recipeIds[live] = recipeIds[ordinal];
+                ingredientCounts[live] = ingredientCounts[ordinal];
+                recipeIngredients.set(live, names);
+                live++;
+            }
+        }
+        recipeIngredients.subList(live, recipeIngredients.size()).clear();
+        int liveCount = live;
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(live, 1)) * 2);
+        recipeIds = Arrays.copyOf(recipeIds, capacity);
+        ingredientCounts = Arrays.copyOf(ingredientCounts, capacity);
+        Arrays.fill(ingredientCounts, live, capacity, 0);
+        ordinals.replaceAll((recipeId, ordinal) -> renumbered[ordinal]);
+        ingredients.replaceAll((ingredientId, entry) -> new IngredientEntry(renumbered[entry.ordinal], entry.key));
+        recipesByIngredient.replaceAll((key, recipes) -> {
+            BitSet compacted = new BitSet(liveCount);
+            for (int ordinal = recipes.nextSetBit(0); ordinal >= 0; ordinal = recipes.nextSetBit(ordinal + 1)) {
+                compacted.set(renumbered[ordinal]);
+            }
+            return compacted;
+        });
+        releasedOrdinals = 0;
+    }
+
+    int ordinalCount() {
+        lock.readLock().lock();
+        try {
+            return recipeIngredients.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class IngredientEntry {
+
+        private final int ordinal;
+
+        private final String key;
+
+        private IngredientEntry(int ordinal, String key) {
+            this.ordinal = ordinal;
+            this.key = key;
+        }
+    }
+}
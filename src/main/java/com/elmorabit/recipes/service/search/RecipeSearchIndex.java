@@ -0,0 +1,246 @@
+package com.elmorabit.recipes.service.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the recipe title, description and ingredient names.
+ * <p>
+ * Each recipe is a document; postings map a stemmed term to the recipes containing it together with the
+ * term frequency, and results are ranked with Okapi BM25. Title terms are counted twice so a title match
+ * outranks a passing mention in the description.
+ * <p>
+ * The index is kept in sync by {@link RecipeSearchIndexSynchronizer}.
+ */
+@Component
+public class RecipeSearchIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    private final Map<Long, Long> ingredientRecipes = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * Add or replace the recipe fields of a document, keeping its ingredients.
+     *
+     * @param recipeId the id of the recipe.
+     * @param title the recipe title.
+     * @param description the recipe description.
+     */
+    public void indexRecipe(long recipeId, String title, String description) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.computeIfAbsent(recipeId, id -> new Document());
+            document.title = title;
+            document.description = description;
+            reindex(recipeId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a recipe and its ingredients from the index.
+     *
+     * @param recipeId the id of the recipe.
+     */
+    public void removeRecipe(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.remove(recipeId);
+            if (document != null) {
+                unpost(recipeId, document);
+                document.ingredients.keySet().forEach(ingredientRecipes::remove);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace an ingredient, moving it to another recipe if its recipe changed.
+     *
+     * @param ingredientId the id of the ingredient.
+     * @param recipeId the id of the recipe owning the ingredient, or {@code null} if it has none.
+     * @param name the ingredient name.
+     */
+    public void indexIngredient(long ingredientId, Long recipeId, String name) {
+        lock.writeLock().lock();
+        try {
+            detachIngredient(ingredientId);
+            if (recipeId != null) {
+                Document document = documents.computeIfAbsent(recipeId, id -> new Document());
+                document.ingredients.put(ingredientId, name);
+                ingredientRecipes.put(ingredientId, recipeId);
+                reindex(recipeId, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an ingredient from the recipe owning it.
+     *
+     * @param ingredientId the id of the ingredient.
+     */
+    public void removeIngredient(long ingredientId) {
+        lock.writeLock().lock();
+        try {
+            detachIngredient(ingredientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            ingredientRecipes.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed recipes.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the recipes matching at least one term of the query, best matches first.
+     * <p>
+     * The sort of the {@code pageable} is ignored: results are always ordered by relevance, then by id.
+     *
+     * @param query the free text query.
+     * @param pageable the pagination information.
+     * @return the page of matching recipe ids.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                    int frequency = entry.getValue();
+                    double norm = K1 * (1 - B + B * documents.get(entry.getKey()).length / averageLength);
+                    scores.merge(entry.getKey(), idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranked.size()) : ranked.size();
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Map.Entry<Long, Double> entry : ranked.subList(from, to)) {
+            ids.add(entry.getKey());
+        }
+        return new PageImpl<>(ids, pageable, ranked.size());
+    }
+
+    private void detachIngredient(long ingredientId) {
+        Long previousRecipeId = ingredientRecipes.remove(ingredientId);
+        if (previousRecipeId != null) {
+            Document previous = documents.get(previousRecipeId);
+            if (previous != null) {
+                previous.ingredients.remove(ingredientId);
+                reindex(previousRecipeId, previous);
+            }
+        }
+    }
+
+    private void reindex(long recipeId, Document document) {
+        unpost(recipeId, document);
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> titleTerms = TextAnalyzer.analyze(document.title);
+        titleTerms.forEach(term -> frequencies.merge(term, 2, Integer::sum));
+        int length = 2 * titleTerms.size();
+        for (String text : concat(document.description, document.ingredients.values())) {
+            List<String> terms = TextAnalyzer.analyze(text);
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            length += terms.size();
+        }
+        document.frequencies = frequencies;
+        document.length = length;
+        totalLength += length;
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(recipeId, frequency));
+    }
+
+    private void unpost(long recipeId, Document document) {
+        for (String term : document.frequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(recipeId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+        document.frequencies = Collections.emptyMap();
+        document.length = 0;
+    }
+
+    private static List<String> concat(String first, Collection<String> others) {
+        List<String> texts = new ArrayList<>(others.size() + 1);
+        texts.add(first);
+        texts.addAll(others);
+        return texts;
+    }
+
+    private static final class Document {
+
+        private String title;
+
+        private String description;
+
+        private final Map<Long, String> ingredients = new HashMap<>();
+
+        private Map<String, Integer> frequencies = Collections.emptyMap();
+
+        private int length;
+    }
+}
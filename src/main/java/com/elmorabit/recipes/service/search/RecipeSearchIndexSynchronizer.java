@@ -0,0 +1,230 @@
+package com.elmorabit.recipes.service.search;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.IngredientRepository;
+import com.elmorabit.recipes.repository.RecipeRepository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the {@link RecipeSearchIndex} and the {@link IngredientCoverageIndex} in sync with the database.
+ * <p>
+ * Both indexes are rebuilt together from the database in batches once the application is ready. They are then updated from
+ * Hibernate post-commit events on {@link Recipe} and {@link Ingredient}, so rolled back changes never reach them, whichever
+ * service saved the entities.
+ * <p>
+ * The updates committed while the indexes are rebuilt are held back and replayed in commit order once they are rebuilt,
+ * so that they win over the rows the rebuild read before they were committed, and are not lost if the rebuild read the
+ * rows before their commit.
+ */
+@Component
+public class RecipeSearchIndexSynchronizer implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Logger log = LoggerFactory.getLogger(RecipeSearchIndexSynchronizer.class);
+
+    private final transient RecipeSearchIndex recipeSearchIndex;
+
+    private final transient IngredientCoverageIndex ingredientCoverageIndex;
+
+    private final transient RecipeRepository recipeRepository;
+
+    private final transient IngredientRepository ingredientRepository;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final transient ApplicationProperties applicationProperties;
+
+    private final transient Object rebuildLock = new Object();
+
+    // The index updates committed during a rebuild, null when no rebuild is running; guarded by rebuildLock
+    private transient List<Runnable> updatesDuringRebuild;
+
+    public RecipeSearchIndexSynchronizer(RecipeSearchIndex recipeSearchIndex, IngredientCoverageIndex ingredientCoverageIndex,
+            RecipeRepository recipeRepository, IngredientRepository ingredientRepository, EntityManagerFactory entityManagerFactory,
+            ApplicationProperties applicationProperties) {
+
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.ingredientCoverageIndex = ingredientCoverageIndex;
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (applicationProperties.getSearch().isRebuildOnStartup()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild both indexes, streaming recipes and their ingredients from the database in id order.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        int batchSize = applicationProperties.getSearch().getRebuildBatchSize();
+        synchronized (rebuildLock) {
+            updatesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            rebuildFromDatabase(batchSize);
+        } finally {
+            replayUpdatesDuringRebuild();
+        }
+        log.info("Rebuilt recipe search and ingredient coverage indexes with {} recipes in {} ms", recipeSearchIndex.size(),
+            System.currentTimeMillis() - start);
+    }
+
+    private void rebuildFromDatabase(int batchSize) {
+        recipeSearchIndex.clear();
+        ingredientCoverageIndex.clear();
+        long lastId = Long.MIN_VALUE;
+        List<Object[]> recipes;
+        do {
+            recipes = recipeRepository.findSearchableFieldsAfter(lastId, PageRequest.of(0, batchSize));
+            List<Long> recipeIds = new ArrayList<>(recipes.size());
+            for (Object[] recipe : recipes) {
+                lastId = (Long) recipe[0];
+                recipeIds.add(lastId);
+                recipeSearchIndex.indexRecipe(lastId, (String) recipe[1], (String) recipe[2]);
+            }
+            if (!recipeIds.isEmpty()) {
+                for (Object[] ingredient : ingredientRepository.findSearchableFieldsByRecipeIds(recipeIds)) {
+                    recipeSearchIndex.indexIngredient((Long) ingredient[0], (Long) ingredient[1], (String) ingredient[2]);
+                    ingredientCoverageIndex.index((Long) ingredient[0], (Long) ingredient[1], (String) ingredient[2]);
+                }
+            }
+        } while (recipes.size() == batchSize);
+    }
+
+    /**
+     * Replay the updates held back during the rebuild until none is left, only then letting the next ones through, so
+     * that an update held back is never applied after a later one.
+     */
+    private void replayUpdatesDuringRebuild() {
+        while (true) {
+            List<Runnable> updates;
+            synchronized (rebuildLock) {
+                if (updatesDuringRebuild.isEmpty()) {
+                    updatesDuringRebuild = null;
+                    return;
+                }
+                updates = updatesDuringRebuild;
+                updatesDuringRebuild = new ArrayList<>();
+            }
+            updates.forEach(Runnable::run);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        index(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        index(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Recipe) {
+            long recipeId = ((Recipe) entity).getId();
+            updateIndexes(() -> recipeSearchIndex.removeRecipe(recipeId));
+        } else if (entity instanceof Ingredient) {
+            long ingredientId = ((Ingredient) entity).getId();
+            updateIndexes(() -> {
+                recipeSearchIndex.removeIngredient(ingredientId);
+                ingredientCoverageIndex.remove(ingredientId);
+            });
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was indexed before the commit
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return Recipe.class.equals(entityClass) || Ingredient.class.equals(entityClass);
+    }
+
+    /**
+     * Still abstract in Hibernate 5.4, the misspelled predecessor of {@link #requiresPostCommitHandling(EntityPersister)}.
+     */
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private void index(Object entity) {
+        if (entity instanceof Recipe) {
+            long recipeId = ((Recipe) entity).getId();
+            String title = ((Recipe) entity).getTitle();
+            String description = ((Recipe) entity).getDescription();
+            updateIndexes(() -> recipeSearchIndex.indexRecipe(recipeId, title, description));
+        } else if (entity instanceof Ingredient) {
+            Ingredient ingredient = (Ingredient) entity;
+            long ingredientId = ingredient.getId();
+            Long recipeId = ingredient.getRecipe() == null ? null : ingredient.getRecipe().getId();
+            String name = ingredient.getName();
+            updateIndexes(() -> {
+                recipeSearchIndex.indexIngredient(ingredientId, recipeId, name);
+                ingredientCoverageIndex.index(ingredientId, recipeId, name);
+            });
+        }
+    }
+
+    private void updateIndexes(Runnable update) {
+        synchronized (rebuildLock) {
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.elmorabit.recipes.service.search;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into the normalized terms stored in the search indexes.
+ * <p>
+ * Text is lower-cased, split on anything that is not a letter or a digit, stripped of common English
+ * stop words and reduced with a light suffix stemmer, so that "Tomatoes" and "tomato", or "baked" and "bake", end up as the same term.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+        "of", "on", "or", "the", "to", "with"));
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Split a text into stemmed terms, keeping duplicates and their order.
+     *
+     * @param text the text to analyze, may be {@code null}.
+     * @return the list of terms.
+     */
+    public static List<String> analyze(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalize a short label, such as an ingredient name, into a single key.
+     *
+     * @param text the text to normalize, may be {@code null}.
+     * @return the stemmed terms joined by a single space, or an empty string.
+     */
+    public static String normalize(String text) {
+        return String.join(" ", analyze(text));
+    }
+
+    static String stem(String token) {
+        String stem = stripSuffix(token);
+        if (stem.length() > 3 && stem.endsWith("e")) {
+            return stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String stripSuffix(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > 4 && (token.endsWith("oes") || token.endsWith("ches") || token.endsWith("shes")
+            || token.endsWith("sses") || token.endsWith("xes") || token.endsWith("zes"))) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, length - 1);
+        }
+        if (length > 5 && token.endsWith("ing")) {
+            return token.substring(0, length - 3);
+        }
+        if (length > 4 && token.endsWith("ed") && !token.endsWith("eed")) {
+            return token.substring(0, length - 2);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory search structures over the recipe catalog.
+ */
+package com.elmorabit.recipes.service.search;
@@ -1,17 +1,27 @@
 package com.elmorabit.recipes.web.rest;
 
 import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
 import com.elmorabit.recipes.service.AuthorService;
 import com.elmorabit.recipes.web.rest.errors.BadRequestAlertException;
+import com.elmorabit.recipes.web.rest.errors.PreconditionFailedException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -33,8 +43,11 @@ public class AuthorResource {
 
     private final AuthorService authorService;
 
-    public AuthorResource(AuthorService authorService) {
+    private final ObjectMapper objectMapper;
+
+    public AuthorResource(AuthorService authorService, ObjectMapper objectMapper) {
         this.authorService = authorService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -60,45 +73,89 @@ public class AuthorResource {
      * {@code PUT  /authors} : Updates an existing author.
      *
      * @param author the author to update.
+     * @param ifMatch the entity tag of the author the update was made from, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated author,
      * or with status {@code 400 (Bad Request)} if the author is not valid,
+     * or with status {@code 409 (Conflict)} if the author was changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if the entity tag is not the current one,
      * or with status {@code 500 (Internal Server Error)} if the author couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/authors")
-    public ResponseEntity<Author> updateAuthor(@RequestBody Author author) throws URISyntaxException {
+    public ResponseEntity<Author> updateAuthor(@RequestBody Author author,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
         log.debug("REST request to update Author : {}", author);
         if (author.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        if (ifMatch != null) {
+            // Apply the update to the version the entity tag was computed from, so that a concurrent change is detected
+            author.setVersion(authorService.findOne(author.getId())
+                .filter(current -> EntityTags.matches(ifMatch, EntityTags.of(current)))
+                .orElseThrow(() -> new PreconditionFailedException(ENTITY_NAME))
+                .getVersion());
+        }
         Author result = authorService.save(author);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, author.getId().toString()))
+            .eTag(EntityTags.of(result))
             .body(result);
     }
 
     /**
-     * {@code GET  /authors} : get all the authors.
+     * {@code GET  /authors?after=:id&size=:size} : get the authors matching the given filters, in id order.
+     * <p>
+     * The total number of authors is not computed; the {@code Link} header holds the url of the next page, if any.
      *
+     * @param name the beginning of the author names, or none for all names.
+     * @param after the id of the last author of the previous page, or none for the first page.
+     * @param pageable the size of the page, reduced to the maximum page size if larger; its sort is ignored.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body.
      */
     @GetMapping("/authors")
-    public List<Author> getAllAuthors() {
-        log.debug("REST request to get all Authors");
-        return authorService.findAll();
+    public ResponseEntity<List<Author>> getAllAuthors(@RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "after", required = false) Long after, Pageable pageable) {
+        log.debug("REST request to get a slice of Authors with name {} after {}", name, after);
+        Slice<Author> slice = authorService.findAll(name, after, pageable.getPageSize());
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String link = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", slice.getContent().get(slice.getNumberOfElements() - 1).getId())
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /authors/export} : export all the authors as newline-delimited JSON, one author per line, in id order.
+     *
+     * @param response the response to write the authors to, with status {@code 200 (OK)}.
+     * @throws IOException if the authors couldn't be written to the response.
+     */
+    @GetMapping(value = "/authors/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public void exportAuthors(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Authors");
+        try (NdjsonWriter ndjson = new NdjsonWriter(response, objectMapper, false)) {
+            ndjson.writeAll(authorService::exportAll);
+        }
     }
 
     /**
      * {@code GET  /authors/:id} : get the "id" author.
      *
      * @param id the id of the author to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the {@code If-None-Match} or {@code If-Modified-Since} header matches the author.
      */
     @GetMapping("/authors/{id}")
     public ResponseEntity<Author> getAuthor(@PathVariable Long id) {
         log.debug("REST request to get Author : {}", id);
         Optional<Author> author = authorService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(author);
+        return ResponseUtil.wrapOrNotFound(author, author.map(EntityTags::headers).orElse(null));
     }
 
     /**
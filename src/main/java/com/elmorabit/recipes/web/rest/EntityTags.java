@@ -0,0 +1,134 @@
+package com.elmorabit.recipes.web.rest;
+
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.service.RecipeView;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Validators of the entity representations, for conditional requests.
+ * <p>
+ * The strong entity tag of a representation hashes the ids and versions of the entities it is made of, and its
+ * modification date is the latest one of these entities, so neither requires the body to be serialized. Spring answers
+ * {@code 304 (Not Modified)} to a {@code GET} whose {@code If-None-Match} or {@code If-Modified-Since} header matches them.
+ */
+final class EntityTags {
+
+    private static final String ANY = "*";
+
+    private EntityTags() {
+    }
+
+    /**
+     * Get the entity tag of a recipe read with a view, which must be loaded with the associations of the view.
+     */
+    static String of(Recipe recipe, RecipeView view) {
+        StringBuilder source = new StringBuilder("recipe/").append(view.getParameter());
+        append(source, recipe.getId(), recipe.getVersion());
+        if (view != RecipeView.SUMMARY && recipe.getAuthor() != null) {
+            append(source, recipe.getAuthor().getId(), recipe.getAuthor().getVersion());
+        }
+        if (view == RecipeView.FULL) {
+            recipe.getIngredients().stream()
+                .sorted(Comparator.comparing(Ingredient::getId))
+                .forEach(ingredient -> append(source, ingredient.getId(), ingredient.getVersion()));
+        }
+        return hash(source);
+    }
+
+    static String of(Ingredient ingredient) {
+        StringBuilder source = new StringBuilder("ingredient");
+        append(source, ingredient.getId(), ingredient.getVersion());
+        if (ingredient.getRecipe() != null) {
+            append(source, ingredient.getRecipe().getId(), ingredient.getRecipe().getVersion());
+        }
+        return hash(source);
+    }
+
+    static String of(Author author) {
+        StringBuilder source = new StringBuilder("author");
+        append(source, author.getId(), author.getVersion());
+        return hash(source);
+    }
+
+    /**
+     * Get the headers validating a recipe read with a view.
+     * <p>
+     * The full view has no modification date: deleting an ingredient does not modify the recipe, only its entity tag shows it.
+     */
+    static HttpHeaders headers(Recipe recipe, RecipeView view) {
+        Instant lastModified = null;
+        if (view != RecipeView.FULL) {
+            lastModified = recipe.getLastModifiedDate();
+            if (view == RecipeView.WITH_AUTHOR && recipe.getAuthor() != null) {
+                lastModified = latest(lastModified, recipe.getAuthor().getLastModifiedDate());
+            }
+        }
+        return headers(of(recipe, view), lastModified);
+    }
+
+    static HttpHeaders headers(Ingredient ingredient) {
+        Instant lastModified = ingredient.getLastModifiedDate();
+        if (ingredient.getRecipe() != null) {
+            lastModified = latest(lastModified, ingredient.getRecipe().getLastModifiedDate());
+        }
+        return headers(of(ingredient), lastModified);
+    }
+
+    static HttpHeaders headers(Author author) {
+        return headers(of(author), author.getLastModifiedDate());
+    }
+
+    /**
+     * Check an {@code If-Match} header, with the strong comparison: weak tags never match.
+     *
+     * @param ifMatch the value of the header, a comma separated list of entity tags or {@code *}.
+     * @param currentTags the entity tags of the current representations of the entity.
+     * @return whether one of the listed tags is a current one.
+     */
+    static boolean matches(String ifMatch, String... currentTags) {
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals(ANY)) {
+                return true;
+            }
+            for (String currentTag : currentTags) {
+                if (trimmed.equals(currentTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static HttpHeaders headers(String eTag, Instant lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+        return headers;
+    }
+
+    private static void append(StringBuilder source, Long id, Integer version) {
+        source.append('/').append(id).append(':').append(version);
+    }
+
+    private static String hash(StringBuilder source) {
+        return '"' + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        if (first == null || (second != null && second.isAfter(first))) {
+            return second;
+        }
+        return first;
+    }
+}
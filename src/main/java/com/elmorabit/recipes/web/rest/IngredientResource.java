@@ -1,17 +1,27 @@
 package com.elmorabit.recipes.web.rest;
 
 import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
 import com.elmorabit.recipes.service.IngredientService;
 import com.elmorabit.recipes.web.rest.errors.BadRequestAlertException;
+import com.elmorabit.recipes.web.rest.errors.PreconditionFailedException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -33,8 +43,11 @@ public class IngredientResource {
 
     private final IngredientService ingredientService;
 
-    public IngredientResource(IngredientService ingredientService) {
+    private final ObjectMapper objectMapper;
+
+    public IngredientResource(IngredientService ingredientService, ObjectMapper objectMapper) {
         this.ingredientService = ingredientService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -60,17 +73,28 @@ public class IngredientResource {
      * {@code PUT  /ingredients} : Updates an existing ingredient.
      *
      * @param ingredient the ingredient to update.
+     * @param ifMatch the entity tag of the ingredient the update was made from, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ingredient,
      * or with status {@code 400 (Bad Request)} if the ingredient is not valid,
+     * or with status {@code 409 (Conflict)} if the ingredient was changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if the entity tag is not the current one,
      * or with status {@code 500 (Internal Server Error)} if the ingredient couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/ingredients")
-    public ResponseEntity<Ingredient> updateIngredient(@RequestBody Ingredient ingredient) throws URISyntaxException {
+    public ResponseEntity<Ingredient> updateIngredient(@RequestBody Ingredient ingredient,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
         log.debug("REST request to update Ingredient : {}", ingredient);
         if (ingredient.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        if (ifMatch != null) {
+            // Apply the update to the version the entity tag was computed from, so that a concurrent change is detected
+            ingredient.setVersion(ingredientService.findOne(ingredient.getId())
+                .filter(current -> EntityTags.matches(ifMatch, EntityTags.of(current)))
+                .orElseThrow(() -> new PreconditionFailedException(ENTITY_NAME))
+                .getVersion());
+        }
         Ingredient result = ingredientService.save(ingredient);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, ingredient.getId().toString()))
@@ -78,27 +102,63 @@ public class IngredientResource {
     }
 
     /**
-     * {@code GET  /ingredients} : get all the ingredients.
+     * {@code GET  /ingredients?after=:id&size=:size} : get the ingredients matching the given filters, in id order.
+     * <p>
+     * The total number of ingredients is not computed; the {@code Link} header holds the url of the next page, if any.
      *
+     * @param name the beginning of the ingredient names, or none for all names.
+     * @param recipeId the id of the recipe of the ingredients, or none for all recipes.
+     * @param unit the unit of the ingredients, or none for all units.
+     * @param after the id of the last ingredient of the previous page, or none for the first page.
+     * @param pageable the size of the page, reduced to the maximum page size if larger; its sort is ignored.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ingredients in body.
      */
     @GetMapping("/ingredients")
-    public List<Ingredient> getAllIngredients() {
-        log.debug("REST request to get all Ingredients");
-        return ingredientService.findAll();
+    public ResponseEntity<List<Ingredient>> getAllIngredients(@RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "recipeId", required = false) Long recipeId,
+            @RequestParam(value = "unit", required = false) String unit,
+            @RequestParam(value = "after", required = false) Long after, Pageable pageable) {
+        log.debug("REST request to get a slice of Ingredients with name {}, recipe {} and unit {} after {}", name, recipeId, unit, after);
+        Slice<Ingredient> slice = ingredientService.findAll(name, recipeId, unit, after, pageable.getPageSize());
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String link = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", slice.getContent().get(slice.getNumberOfElements() - 1).getId())
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /ingredients/export} : export all the ingredients as newline-delimited JSON, one ingredient per line, in id order.
+     *
+     * @param response the response to write the ingredients to, with status {@code 200 (OK)}.
+     * @throws IOException if the ingredients couldn't be written to the response.
+     */
+    @GetMapping(value = "/ingredients/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public void exportIngredients(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Ingredients");
+        try (NdjsonWriter ndjson = new NdjsonWriter(response, objectMapper, false)) {
+            ndjson.writeAll(ingredientService::exportAll);
+        }
     }
 
     /**
      * {@code GET  /ingredients/:id} : get the "id" ingredient.
      *
      * @param id the id of the ingredient to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ingredient, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ingredient, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the {@code If-None-Match} or {@code If-Modified-Since} header matches the ingredient.
      */
     @GetMapping("/ingredients/{id}")
     public ResponseEntity<Ingredient> getIngredient(@PathVariable Long id) {
         log.debug("REST request to get Ingredient : {}", id);
         Optional<Ingredient> ingredient = ingredientService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(ingredient);
+        return ResponseUtil.wrapOrNotFound(ingredient, ingredient.map(EntityTags::headers).orElse(null));
     }
 
     /**
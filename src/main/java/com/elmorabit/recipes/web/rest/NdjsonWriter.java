@@ -0,0 +1,86 @@
+package com.elmorabit.recipes.web.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes values to a response as newline-delimited JSON, one document per line, without buffering them in memory.
+ */
+final class NdjsonWriter implements Closeable {
+
+    static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final ObjectWriter writer;
+
+    private final JsonGenerator generator;
+
+    private final boolean flushEachValue;
+
+    /**
+     * @param response the response to write to.
+     * @param objectMapper the mapper serializing the values.
+     * @param flushEachValue whether each value should be sent to the client as soon as it is written, as for progress reports.
+     * @throws IOException if the response cannot be written.
+     */
+    NdjsonWriter(HttpServletResponse response, ObjectMapper objectMapper, boolean flushEachValue) throws IOException {
+        response.setContentType(CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        this.generator.setRootValueSeparator(null);
+        this.flushEachValue = flushEachValue;
+    }
+
+    void write(Object value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+        if (flushEachValue) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Write every value that a producer, such as a service streaming entities, hands to its consumer.
+     *
+     * @param producer the producer of the values.
+     * @param <T> the type of the values.
+     * @throws IOException if a value cannot be written, or if the producer fails to read the values.
+     */
+    <T> void writeAll(Producer<T> producer) throws IOException {
+        try {
+            producer.produce(value -> {
+                try {
+                    write(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    /**
+     * Source of values handing them one at a time to a consumer.
+     *
+     * @param <T> the type of the values.
+     */
+    @FunctionalInterface
+    interface Producer<T> {
+
+        void produce(Consumer<T> consumer) throws IOException;
+    }
+}
@@ -1,9 +1,19 @@
 package com.elmorabit.recipes.web.rest;
 
 import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
+import com.elmorabit.recipes.service.RecipeCursor;
 import com.elmorabit.recipes.service.RecipeService;
+import com.elmorabit.recipes.service.RecipeView;
+import com.elmorabit.recipes.service.importer.CsvRecipeRecordReader;
+import com.elmorabit.recipes.service.importer.NdjsonRecipeRecordReader;
+import com.elmorabit.recipes.service.importer.RecipeImportProgress;
+import com.elmorabit.recipes.service.importer.RecipeImportService;
+import com.elmorabit.recipes.service.importer.RecipeRecordReader;
 import com.elmorabit.recipes.web.rest.errors.BadRequestAlertException;
+import com.elmorabit.recipes.web.rest.errors.PreconditionFailedException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
@@ -12,16 +22,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * REST controller for managing {@link com.elmorabit.recipes.domain.Recipe}.
@@ -34,13 +53,21 @@ public class RecipeResource {
 
     private static final String ENTITY_NAME = "recipe";
 
+    private static final String CSV_CONTENT_TYPE = "text/csv";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final RecipeService recipeService;
 
-    public RecipeResource(RecipeService recipeService) {
+    private final RecipeImportService recipeImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public RecipeResource(RecipeService recipeService, RecipeImportService recipeImportService, ObjectMapper objectMapper) {
         this.recipeService = recipeService;
+        this.recipeImportService = recipeImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -66,48 +93,230 @@ public class RecipeResource {
      * {@code PUT  /recipes} : Updates an existing recipe.
      *
      * @param recipe the recipe to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated recipe,
+     * @param ifMatch the entity tags of the representations of the recipe the update was made from, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated recipe with its author, as
+     * read by default, and its entity tag,
      * or with status {@code 400 (Bad Request)} if the recipe is not valid,
+     * or with status {@code 404 (Not Found)} if the recipe was deleted meanwhile,
+     * or with status {@code 409 (Conflict)} if the recipe was changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if none of the entity tags is a current one,
      * or with status {@code 500 (Internal Server Error)} if the recipe couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/recipes")
-    public ResponseEntity<Recipe> updateRecipe(@RequestBody Recipe recipe) throws URISyntaxException {
+    public ResponseEntity<Recipe> updateRecipe(@RequestBody Recipe recipe,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
         log.debug("REST request to update Recipe : {}", recipe);
         if (recipe.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        if (ifMatch != null) {
+            recipe.setVersion(matchingVersion(recipe.getId(), ifMatch));
+        }
         Recipe result = recipeService.save(recipe);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, recipe.getId().toString()))
-            .body(result);
+        // Read back with the default view, to answer with the same representation and entity tag as a GET
+        Optional<Recipe> updated = recipeService.findOne(result.getId(), RecipeView.WITH_AUTHOR);
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, recipe.getId().toString());
+        updated.ifPresent(found -> headers.setETag(EntityTags.of(found, RecipeView.WITH_AUTHOR)));
+        return ResponseUtil.wrapOrNotFound(updated, headers);
+    }
+
+    /**
+     * {@code PUT  /recipes/:id/full} : Updates an existing recipe with all its ingredients.
+     * <p>
+     * Submitted ingredients without id are created, the ones with an id are updated, and the ingredients of the recipe
+     * missing from the submitted ones are deleted, all in one transaction.
+     *
+     * @param id the id of the recipe to update.
+     * @param recipe the recipe to update, with the version it was read with unless an entity tag is sent, and its complete list of ingredients.
+     * @param ifMatch the entity tags of the representations of the recipe the update was made from, instead of its version.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated recipe with its author and ingredients,
+     * or with status {@code 400 (Bad Request)} if the recipe is not valid,
+     * or with status {@code 404 (Not Found)} if there is no recipe with this id,
+     * or with status {@code 409 (Conflict)} if the recipe was changed since it was read,
+     * or with status {@code 412 (Precondition Failed)} if none of the entity tags is a current one.
+     */
+    @PutMapping("/recipes/{id}/full")
+    public ResponseEntity<Recipe> updateRecipeWithIngredients(@PathVariable Long id, @RequestBody Recipe recipe,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to update Recipe with its ingredients : {}", recipe);
+        if (recipe.getId() != null && !recipe.getId().equals(id)) {
+            throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idinvalid");
+        }
+        if (ifMatch != null) {
+            recipe.setVersion(matchingVersion(id, ifMatch));
+        }
+        if (recipe.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
+        recipe.setId(id);
+        Optional<Recipe> result;
+        try {
+            result = recipeService.saveWithIngredients(recipe);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "ingredientinvalid");
+        }
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString());
+        result.ifPresent(updated -> headers.setETag(EntityTags.of(updated, RecipeView.FULL)));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
-     * {@code GET  /recipes} : get all the recipes.
+     * {@code GET  /recipes?view=:view} : get all the recipes.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of recipes in body.
+     * @param view the fetch plan of the recipes: {@code summary}, {@code with-author} (the default) or {@code full}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of recipes in body,
+     * or with status {@code 400 (Bad Request)} if the view is unknown.
      */
     @GetMapping("/recipes")
-    public ResponseEntity<List<Recipe>> getAllRecipes(Pageable pageable) {
+    public ResponseEntity<List<Recipe>> getAllRecipes(Pageable pageable, @RequestParam(value = "view", required = false) String view) {
         log.debug("REST request to get a page of Recipes");
-        Page<Recipe> page = recipeService.findAll(pageable);
+        Page<Recipe> page = recipeService.findAll(pageable, resolveView(view));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
-     * {@code GET  /recipes/:id} : get the "id" recipe.
+     * {@code GET  /recipes?after=:cursor&size=:size} : get the recipes following a cursor, using keyset pagination.
+     * <p>
+     * An empty cursor starts from the first recipe, sorted as requested by the {@code sort} parameter on {@code id} or {@code title}.
+     * The total number of recipes is not computed; the {@code Link} header holds the cursor of the next page, if any.
+     *
+     * @param after the cursor returned by the previous page, or an empty value for the first page.
+     * @param pageable the size and, for the first page, the sort of the page.
+     * @param view the fetch plan of the recipes: {@code summary}, {@code with-author} (the default) or {@code full}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of recipes in body,
+     * or with status {@code 400 (Bad Request)} if the cursor, the sort or the view is invalid.
+     */
+    @GetMapping(value = "/recipes", params = "after")
+    public ResponseEntity<List<Recipe>> getAllRecipesAfter(@RequestParam("after") String after, Pageable pageable,
+            @RequestParam(value = "view", required = false) String view) {
+        log.debug("REST request to get a slice of Recipes after {}", after);
+        RecipeCursor cursor;
+        try {
+            cursor = after.isEmpty() ? RecipeCursor.first(pageable.getSort()) : RecipeCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<Recipe> slice = recipeService.findAllAfter(cursor, pageable.getPageSize(), resolveView(view));
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String next = cursor.after(slice.getContent().get(slice.getNumberOfElements() - 1)).encode();
+            String link = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", next)
+                .replaceQueryParam("size", pageable.getPageSize())
+                .replaceQueryParam("sort")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /recipes/export} : export all the recipes, with their author and ingredients, as newline-delimited JSON.
+     * <p>
+     * Recipes are written to the response as they are read from the database, one JSON document per line, in id order.
+     *
+     * @param response the response to write the recipes to, with status {@code 200 (OK)}.
+     * @throws IOException if the recipes couldn't be written to the response.
+     */
+    @GetMapping(value = "/recipes/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public void exportRecipes(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Recipes");
+        try (NdjsonWriter ndjson = new NdjsonWriter(response, objectMapper, false)) {
+            ndjson.writeAll(recipeService::exportAll);
+        }
+    }
+
+    /**
+     * {@code POST  /recipes/import?skip=:skip} : import recipes, with their ingredients and authors, from newline-delimited JSON
+     * in the format of the export, or from CSV as described by {@link CsvRecipeRecordReader}.
+     * <p>
+     * Recipes are saved in batches, each one committed on its own, and the progress of the import is written to the response
+     * as newline-delimited JSON, one line per committed batch, then a last line with the final status.
+     * An import that failed can be resumed by sending the same records again, skipping the position reported by its last line.
+     *
+     * @param skip the number of records to skip.
+     * @param request the request holding the records to import.
+     * @param response the response to write the progress of the import to, with status {@code 200 (OK)}.
+     * @throws IOException if the records couldn't be read, or the progress couldn't be written.
+     */
+    @PostMapping(value = "/recipes/import", consumes = {NdjsonWriter.CONTENT_TYPE, CSV_CONTENT_TYPE}, produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public void importRecipes(@RequestParam(value = "skip", defaultValue = "0") long skip, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        log.debug("REST request to import Recipes, skipping {} records", skip);
+        if (skip < 0) {
+            throw new BadRequestAlertException("Invalid skip", ENTITY_NAME, "skipinvalid");
+        }
+        BufferedReader input = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        RecipeRecordReader reader;
+        if (MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(CSV_CONTENT_TYPE))) {
+            try {
+                reader = new CsvRecipeRecordReader(input);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "csvheaderinvalid");
+            }
+        } else {
+            reader = new NdjsonRecipeRecordReader(input, objectMapper.reader());
+        }
+
+        try (RecipeRecordReader records = reader; NdjsonWriter ndjson = new NdjsonWriter(response, objectMapper, true)) {
+            AtomicReference<RecipeImportProgress> result = new AtomicReference<>();
+            ndjson.<RecipeImportProgress>writeAll(progress -> result.set(recipeImportService.importRecipes(records, skip, progress)));
+            ndjson.write(result.get());
+        }
+    }
+
+    /**
+     * {@code GET  /recipes/_search?q=:query} : search for the recipes matching the query,
+     * on their title, description and ingredient names.
+     *
+     * @param query the query of the recipe search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching recipes in body, best matches first.
+     */
+    @GetMapping("/recipes/_search")
+    public ResponseEntity<List<Recipe>> searchRecipes(@RequestParam("q") String query, Pageable pageable) {
+        log.debug("REST request to search for a page of Recipes for query {}", query);
+        Page<Recipe> page = recipeService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /recipes/_by-ingredients?ingredients=:names} : get the recipes that can be cooked with the given ingredients,
+     * the ones covering most of them first.
+     *
+     * @param ingredientNames the names of the available ingredients.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching recipes in body.
+     */
+    @GetMapping("/recipes/_by-ingredients")
+    public ResponseEntity<List<Recipe>> getRecipesByIngredients(@RequestParam("ingredients") List<String> ingredientNames, Pageable pageable) {
+        log.debug("REST request to get a page of Recipes using ingredients {}", ingredientNames);
+        Page<Recipe> page = recipeService.findAllByIngredients(ingredientNames, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /recipes/:id?view=:view} : get the "id" recipe.
      *
      * @param id the id of the recipe to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the recipe, or with status {@code 404 (Not Found)}.
+     * @param view the fetch plan of the recipe: {@code summary}, {@code with-author} (the default) or {@code full}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the recipe, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the {@code If-None-Match} or {@code If-Modified-Since} header matches the recipe,
+     * or with status {@code 400 (Bad Request)} if the view is unknown.
      */
     @GetMapping("/recipes/{id}")
-    public ResponseEntity<Recipe> getRecipe(@PathVariable Long id) {
+    public ResponseEntity<Recipe> getRecipe(@PathVariable Long id, @RequestParam(value = "view", required = false) String view) {
         log.debug("REST request to get Recipe : {}", id);
-        Optional<Recipe> recipe = recipeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(recipe);
+        RecipeView recipeView = resolveView(view);
+        Optional<Recipe> recipe = recipeService.findOne(id, recipeView);
+        return ResponseUtil.wrapOrNotFound(recipe, recipe.map(found -> EntityTags.headers(found, recipeView)).orElse(null));
     }
 
     /**
@@ -122,4 +331,25 @@ public class RecipeResource {
         recipeService.delete(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString())).build();
     }
+
+    /**
+     * Check an {@code If-Match} header against the representations of the current recipe.
+     *
+     * @return the current version of the recipe, that the update must be applied to.
+     */
+    private Integer matchingVersion(Long id, String ifMatch) {
+        return recipeService.findOne(id, RecipeView.FULL)
+            .filter(current -> EntityTags.matches(ifMatch, EntityTags.of(current, RecipeView.SUMMARY),
+                EntityTags.of(current, RecipeView.WITH_AUTHOR), EntityTags.of(current, RecipeView.FULL)))
+            .orElseThrow(() -> new PreconditionFailedException(ENTITY_NAME))
+            .getVersion();
+    }
+
+    private RecipeView resolveView(String view) {
+        if (view == null) {
+            return RecipeView.WITH_AUTHOR;
+        }
+        return RecipeView.fromParameter(view)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid view", ENTITY_NAME, "viewinvalid"));
+    }
 }
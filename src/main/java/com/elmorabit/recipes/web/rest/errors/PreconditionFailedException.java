@@ -0,0 +1,27 @@
+package com.elmorabit.recipes.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thrown when the {@code If-Match} header of an update does not match the current version of the entity.
+ */
+public class PreconditionFailedException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String entityName) {
+        super(ErrorConstants.DEFAULT_TYPE, "The " + entityName + " was changed", Status.PRECONDITION_FAILED, null, null, null,
+            getAlertParameters(entityName));
+    }
+
+    private static Map<String, Object> getAlertParameters(String entityName) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("message", ErrorConstants.ERR_PRECONDITION_FAILED);
+        parameters.put("params", entityName);
+        return parameters;
+    }
+}
@@ -1,13 +1,15 @@
 import axios from 'axios';
 import { ICrudGetAction, ICrudGetAllAction, ICrudPutAction, ICrudDeleteAction } from 'react-jhipster';
 
-import { cleanEntity } from 'app/shared/util/entity-utils';
+import { cleanEntity, getNextPageUrl } from 'app/shared/util/entity-utils';
+import { ITEMS_PER_PAGE } from 'app/shared/util/pagination.constants';
 import { REQUEST, SUCCESS, FAILURE } from 'app/shared/reducers/action-type.util';
 
 import { IAuthor, defaultValue } from 'app/shared/model/author.model';
 
 export const ACTION_TYPES = {
   FETCH_AUTHOR_LIST: 'author/FETCH_AUTHOR_LIST',
+  FETCH_AUTHOR_NEXT_PAGE: 'author/FETCH_AUTHOR_NEXT_PAGE',
   FETCH_AUTHOR: 'author/FETCH_AUTHOR',
   CREATE_AUTHOR: 'author/CREATE_AUTHOR',
   UPDATE_AUTHOR: 'author/UPDATE_AUTHOR',
@@ -19,6 +21,7 @@ const initialState = {
   loading: false,
   errorMessage: null,
   entities: [] as ReadonlyArray<IAuthor>,
+  next: null as string,
   entity: defaultValue,
   updating: false,
   updateSuccess: false,
@@ -31,6 +34,7 @@ export type AuthorState = Readonly<typeof initialState>;
 export default (state: AuthorState = initialState, action): AuthorState => {
   switch (action.type) {
     case REQUEST(ACTION_TYPES.FETCH_AUTHOR_LIST):
+    case REQUEST(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE):
     case REQUEST(ACTION_TYPES.FETCH_AUTHOR):
       return {
         ...state,
@@ -48,6 +52,7 @@ export default (state: AuthorState = initialState, action): AuthorState => {
         updating: true,
       };
     case FAILURE(ACTION_TYPES.FETCH_AUTHOR_LIST):
+    case FAILURE(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE):
     case FAILURE(ACTION_TYPES.FETCH_AUTHOR):
     case FAILURE(ACTION_TYPES.CREATE_AUTHOR):
     case FAILURE(ACTION_TYPES.UPDATE_AUTHOR):
@@ -64,6 +69,14 @@ export default (state: AuthorState = initialState, action): AuthorState => {
         ...state,
         loading: false,
         entities: action.payload.data,
+        next: getNextPageUrl(action.payload.headers),
+      };
+    case SUCCESS(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE):
+      return {
+        ...state,
+        loading: false,
+        entities: [...state.entities, ...action.payload.data],
+        next: getNextPageUrl(action.payload.headers),
       };
     case SUCCESS(ACTION_TYPES.FETCH_AUTHOR):
       return {
@@ -99,9 +112,24 @@ const apiUrl = 'api/authors';
 
 // Actions
 
+// The listing is paginated with cursors: only the first page is fetched, the next ones are fetched from the url in the
+// Link header of the previous page, kept in the state as next.
 export const getEntities: ICrudGetAllAction<IAuthor> = (page, size, sort) => ({
   type: ACTION_TYPES.FETCH_AUTHOR_LIST,
-  payload: axios.get<IAuthor>(`${apiUrl}?cacheBuster=${new Date().getTime()}`),
+  payload: axios.get<IAuthor>(`${apiUrl}?size=${size || ITEMS_PER_PAGE}&cacheBuster=${new Date().getTime()}`),
+});
+
+export const getNextEntities = (next: string) => ({
+  type: ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE,
+  payload: axios.get<IAuthor>(next),
+});
+
+// Lookup of the authors whose name starts with the given text, as for a dropdown, the first page only.
+export const searchEntities = (name: string, size = ITEMS_PER_PAGE) => ({
+  type: ACTION_TYPES.FETCH_AUTHOR_LIST,
+  payload: axios.get<IAuthor>(
+    `${apiUrl}?${name ? `name=${encodeURIComponent(name)}&` : ''}size=${size}&cacheBuster=${new Date().getTime()}`
+  ),
 });
 
 export const getEntity: ICrudGetAction<IAuthor> = id => {
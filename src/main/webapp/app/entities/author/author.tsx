@@ -6,7 +6,7 @@ import { ICrudGetAllAction } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { IRootState } from 'app/shared/reducers';
-import { getEntities } from './author.reducer';
+import { getEntities, getNextEntities } from './author.reducer';
 import { IAuthor } from 'app/shared/model/author.model';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 
@@ -17,7 +17,7 @@ export const Author = (props: IAuthorProps) => {
     props.getEntities();
   }, []);
 
-  const { authorList, match, loading } = props;
+  const { authorList, next, match, loading } = props;
   return (
     <div>
       <h2 id="author-heading">
@@ -69,17 +69,26 @@ export const Author = (props: IAuthorProps) => {
           !loading && <div className="alert alert-warning">No Authors found</div>
         )}
       </div>
+      {next ? (
+        <div className="text-center">
+          <Button color="info" id="load-more" onClick={() => props.getNextEntities(next)} disabled={loading}>
+            Load more authors
+          </Button>
+        </div>
+      ) : null}
     </div>
   );
 };
 
 const mapStateToProps = ({ author }: IRootState) => ({
   authorList: author.entities,
+  next: author.next,
   loading: author.loading,
 });
 
 const mapDispatchToProps = {
   getEntities,
+  getNextEntities,
 };
 
 type StateProps = ReturnType<typeof mapStateToProps>;
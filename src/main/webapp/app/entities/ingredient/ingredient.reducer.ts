@@ -1,13 +1,15 @@
 import axios from 'axios';
 import { ICrudGetAction, ICrudGetAllAction, ICrudPutAction, ICrudDeleteAction } from 'react-jhipster';
 
-import { cleanEntity } from 'app/shared/util/entity-utils';
+import { cleanEntity, getNextPageUrl } from 'app/shared/util/entity-utils';
+import { ITEMS_PER_PAGE } from 'app/shared/util/pagination.constants';
 import { REQUEST, SUCCESS, FAILURE } from 'app/shared/reducers/action-type.util';
 
 import { IIngredient, defaultValue } from 'app/shared/model/ingredient.model';
 
 export const ACTION_TYPES = {
   FETCH_INGREDIENT_LIST: 'ingredient/FETCH_INGREDIENT_LIST',
+  FETCH_INGREDIENT_NEXT_PAGE: 'ingredient/FETCH_INGREDIENT_NEXT_PAGE',
   FETCH_INGREDIENT: 'ingredient/FETCH_INGREDIENT',
   CREATE_INGREDIENT: 'ingredient/CREATE_INGREDIENT',
   UPDATE_INGREDIENT: 'ingredient/UPDATE_INGREDIENT',
@@ -19,6 +21,7 @@ const initialState = {
   loading: false,
   errorMessage: null,
   entities: [] as ReadonlyArray<IIngredient>,
+  next: null as string,
   entity: defaultValue,
   updating: false,
   updateSuccess: false,
@@ -31,6 +34,7 @@ export type IngredientState = Readonly<typeof initialState>;
 export default (state: IngredientState = initialState, action): IngredientState => {
   switch (action.type) {
     case REQUEST(ACTION_TYPES.FETCH_INGREDIENT_LIST):
+    case REQUEST(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE):
     case REQUEST(ACTION_TYPES.FETCH_INGREDIENT):
       return {
         ...state,
@@ -48,6 +52,7 @@ export default (state: IngredientState = initialState, action): IngredientState
         updating: true,
       };
     case FAILURE(ACTION_TYPES.FETCH_INGREDIENT_LIST):
+    case FAILURE(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE):
     case FAILURE(ACTION_TYPES.FETCH_INGREDIENT):
     case FAILURE(ACTION_TYPES.CREATE_INGREDIENT):
     case FAILURE(ACTION_TYPES.UPDATE_INGREDIENT):
@@ -64,6 +69,14 @@ export default (state: IngredientState = initialState, action): IngredientState
         ...state,
         loading: false,
         entities: action.payload.data,
+        next: getNextPageUrl(action.payload.headers),
+      };
+    case SUCCESS(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE):
+      return {
+        ...state,
+        loading: false,
+        entities: [...state.entities, ...action.payload.data],
+        next: getNextPageUrl(action.payload.headers),
       };
     case SUCCESS(ACTION_TYPES.FETCH_INGREDIENT):
       return {
@@ -99,9 +112,16 @@ const apiUrl = 'api/ingredients';
 
 // Actions
 
+// The listing is paginated with cursors: only the first page is fetched, the next ones are fetched from the url in the
+// Link header of the previous page, kept in the state as next.
 export const getEntities: ICrudGetAllAction<IIngredient> = (page, size, sort) => ({
   type: ACTION_TYPES.FETCH_INGREDIENT_LIST,
-  payload: axios.get<IIngredient>(`${apiUrl}?cacheBuster=${new Date().getTime()}`),
+  payload: axios.get<IIngredient>(`${apiUrl}?size=${size || ITEMS_PER_PAGE}&cacheBuster=${new Date().getTime()}`),
+});
+
+export const getNextEntities = (next: string) => ({
+  type: ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE,
+  payload: axios.get<IIngredient>(next),
 });
 
 export const getEntity: ICrudGetAction<IIngredient> = id => {
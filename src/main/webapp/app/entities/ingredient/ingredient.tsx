@@ -6,7 +6,7 @@ import { ICrudGetAllAction } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { IRootState } from 'app/shared/reducers';
-import { getEntities } from './ingredient.reducer';
+import { getEntities, getNextEntities } from './ingredient.reducer';
 import { IIngredient } from 'app/shared/model/ingredient.model';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 
@@ -17,7 +17,7 @@ export const Ingredient = (props: IIngredientProps) => {
     props.getEntities();
   }, []);
 
-  const { ingredientList, match, loading } = props;
+  const { ingredientList, next, match, loading } = props;
   return (
     <div>
       <h2 id="ingredient-heading">
@@ -73,17 +73,26 @@ export const Ingredient = (props: IIngredientProps) => {
           !loading && <div className="alert alert-warning">No Ingredients found</div>
         )}
       </div>
+      {next ? (
+        <div className="text-center">
+          <Button color="info" id="load-more" onClick={() => props.getNextEntities(next)} disabled={loading}>
+            Load more ingredients
+          </Button>
+        </div>
+      ) : null}
     </div>
   );
 };
 
 const mapStateToProps = ({ ingredient }: IRootState) => ({
   ingredientList: ingredient.entities,
+  next: ingredient.next,
   loading: ingredient.loading,
 });
 
 const mapDispatchToProps = {
   getEntities,
+  getNextEntities,
 };
 
 type StateProps = ReturnType<typeof mapStateToProps>;
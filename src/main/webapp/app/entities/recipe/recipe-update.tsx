@@ -1,14 +1,14 @@
 import React, { useState, useEffect } from 'react';
 import { connect } from 'react-redux';
 import { Link, RouteComponentProps } from 'react-router-dom';
-import { Button, Row, Col, Label } from 'reactstrap';
+import { Button, Row, Col, Label, Input, FormText } from 'reactstrap';
 import { AvFeedback, AvForm, AvGroup, AvInput, AvField } from 'availity-reactstrap-validation';
 import { ICrudGetAction, ICrudGetAllAction, ICrudPutAction } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { IRootState } from 'app/shared/reducers';
 
 import { IAuthor } from 'app/shared/model/author.model';
-import { getEntities as getAuthors } from 'app/entities/author/author.reducer';
+import { searchEntities as searchAuthors } from 'app/entities/author/author.reducer';
 import { getEntity, updateEntity, createEntity, reset } from './recipe.reducer';
 import { IRecipe } from 'app/shared/model/recipe.model';
 import { convertDateTimeFromServer, convertDateTimeToServer, displayDefaultDateTime } from 'app/shared/util/date-utils';
@@ -16,11 +16,20 @@ import { mapIdList } from 'app/shared/util/entity-utils';
 
 export interface IRecipeUpdateProps extends StateProps, DispatchProps, RouteComponentProps<{ id: string }> {}
 
+// The authors are too many to be listed at once: the dropdown lists the first ones whose name starts with the filter.
+const AUTHOR_LOOKUP_SIZE = 100;
+
 export const RecipeUpdate = (props: IRecipeUpdateProps) => {
   const [authorId, setAuthorId] = useState('0');
   const [isNew, setIsNew] = useState(!props.match.params || !props.match.params.id);
 
-  const { recipeEntity, authors, loading, updating } = props;
+  const { recipeEntity, authors, moreAuthors, loading, updating } = props;
+
+  // The author of the recipe is kept selectable even when the filter does not match it
+  const authorOptions =
+    !isNew && recipeEntity.author && !authors.some(author => author.id === recipeEntity.author.id)
+      ? [recipeEntity.author, ...authors]
+      : authors;
 
   const handleClose = () => {
     props.history.push('/recipe' + props.location.search);
@@ -33,7 +42,7 @@ export const RecipeUpdate = (props: IRecipeUpdateProps) => {
       props.getEntity(props.match.params.id);
     }
 
-    props.getAuthors();
+    props.searchAuthors('', AUTHOR_LOOKUP_SIZE);
   }, []);
 
   useEffect(() => {
@@ -96,16 +105,27 @@ export const RecipeUpdate = (props: IRecipeUpdateProps) => {
               </AvGroup>
               <AvGroup>
                 <Label for="recipe-author">Author</Label>
+                <Input
+                  id="recipe-author-filter"
+                  type="text"
+                  placeholder="Filter the authors by the beginning of their name"
+                  onChange={event => props.searchAuthors(event.target.value, AUTHOR_LOOKUP_SIZE)}
+                />
                 <AvInput id="recipe-author" type="select" className="form-control" name="author.id">
                   <option value="" key="0" />
-                  {authors
-                    ? authors.map(otherEntity => (
+                  {authorOptions
+                    ? authorOptions.map(otherEntity => (
                         <option value={otherEntity.id} key={otherEntity.id}>
-                          {otherEntity.id}
+                          {otherEntity.name ? `${otherEntity.id} - ${otherEntity.name}` : otherEntity.id}
                         </option>
                       ))
                     : null}
                 </AvInput>
+                {moreAuthors ? (
+                  <FormText color="muted">
+                    Only the first {AUTHOR_LOOKUP_SIZE} matching authors are listed, filter them by name to find the others.
+                  </FormText>
+                ) : null}
               </AvGroup>
               <Button tag={Link} id="cancel-save" to="/recipe" replace color="info">
                 <FontAwesomeIcon icon="arrow-left" />
@@ -127,6 +147,7 @@ export const RecipeUpdate = (props: IRecipeUpdateProps) => {
 
 const mapStateToProps = (storeState: IRootState) => ({
   authors: storeState.author.entities,
+  moreAuthors: !!storeState.author.next,
   recipeEntity: storeState.recipe.entity,
   loading: storeState.recipe.loading,
   updating: storeState.recipe.updating,
@@ -134,7 +155,7 @@ const mapStateToProps = (storeState: IRootState) => ({
 });
 
 const mapDispatchToProps = {
-  getAuthors,
+  searchAuthors,
   getEntity,
   updateEntity,
   createEntity,
@@ -36,3 +36,18 @@ export const overridePaginationStateWithQueryParams = (paginationBaseState: IPag
   }
   return paginationBaseState;
 };
+
+/**
+ * Get the url of the next page of a listing paginated with cursors, from the rel="next" link of its Link header.
+ *
+ * @param headers The headers of the response.
+ * @returns The url of the next page, relative to the application as the other api urls, or null on the last page.
+ */
+export const getNextPageUrl = (headers): string => {
+  const match = headers && headers.link ? /<([^>]+)>;\s*rel="next"/.exec(headers.link) : null;
+  if (!match) {
+    return null;
+  }
+  const url = new URL(match[1], window.location.href);
+  return url.pathname.replace(/^\//, '') + url.search;
+};
@@ -0,0 +1,114 @@
+package com.elmorabit.recipes.config;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the sizing of the cache regions by {@link CacheConfiguration}.
+ */
+public class CacheConfigurationTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheConfiguration cacheConfiguration;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(500);
+        jHipsterProperties.getCache().getEhcache().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+        cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+    }
+
+    @Test
+    public void regionsDefaultToTheJHipsterSettings() {
+        ApplicationProperties.Cache.Region entities = applicationProperties.getCache().getEntities();
+
+        ResourcePools pools = cacheConfiguration.resourcePools(null, entities);
+
+        assertThat(pools.getResourceTypeSet()).containsOnly(ResourceType.Core.HEAP);
+        assertHeap(pools, 500, EntryUnit.ENTRIES);
+        assertThat(cacheConfiguration.timeToLive(null, entities)).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    public void referenceDataHasItsOwnDefaults() {
+        ApplicationProperties.Cache.Region referenceData = applicationProperties.getCache().getReferenceData();
+
+        assertHeap(cacheConfiguration.resourcePools(null, referenceData), 100, EntryUnit.ENTRIES);
+        assertThat(cacheConfiguration.timeToLive(null, referenceData)).isEqualTo(Duration.ofDays(1));
+    }
+
+    @Test
+    public void regionSettingsOverrideTheirGroup() {
+        ApplicationProperties.Cache.Region entities = applicationProperties.getCache().getEntities();
+        entities.setHeapEntries(1000L);
+        entities.setOffHeapSize(DataSize.ofMegabytes(16));
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setHeapSize(DataSize.ofMegabytes(2));
+        region.setTimeToLiveSeconds(60L);
+
+        ResourcePools pools = cacheConfiguration.resourcePools(region, entities);
+
+        assertHeap(pools, DataSize.ofMegabytes(2).toBytes(), MemoryUnit.B);
+        SizedResourcePool offHeap = pools.getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(offHeap.getSize()).isEqualTo(DataSize.ofMegabytes(16).toBytes());
+        assertThat(cacheConfiguration.timeToLive(region, entities)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void diskTiersArePersistent() {
+        applicationProperties.getCache().setDiskPath("target/cache");
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setOffHeapSize(DataSize.ofMegabytes(16));
+        region.setDiskSize(DataSize.ofMegabytes(64));
+
+        ResourcePools pools = cacheConfiguration.resourcePools(region, applicationProperties.getCache().getEntities());
+
+        SizedResourcePool disk = pools.getPoolForResource(ResourceType.Core.DISK);
+        assertThat(disk.getSize()).isEqualTo(DataSize.ofMegabytes(64).toBytes());
+        assertThat(disk.isPersistent()).isTrue();
+    }
+
+    @Test
+    public void diskTiersRequireADiskPath() {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setDiskSize(DataSize.ofMegabytes(64));
+
+        assertThatThrownBy(() -> cacheConfiguration.resourcePools(region, applicationProperties.getCache().getEntities()))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void heapOnlyRegionsIgnoreTheOtherTiersOfTheirGroup() {
+        applicationProperties.getCache().setDiskPath("target/cache");
+        ApplicationProperties.Cache.Region entities = applicationProperties.getCache().getEntities();
+        entities.setHeapEntries(1000L);
+        entities.setOffHeapSize(DataSize.ofMegabytes(16));
+        entities.setDiskSize(DataSize.ofMegabytes(64));
+
+        ResourcePools pools = cacheConfiguration.heapResourcePools(null, entities);
+
+        assertThat(pools.getResourceTypeSet()).containsOnly(ResourceType.Core.HEAP);
+        assertHeap(pools, 1000, EntryUnit.ENTRIES);
+    }
+
+    private static void assertHeap(ResourcePools pools, long size, Object unit) {
+        SizedResourcePool heap = pools.getPoolForResource(ResourceType.Core.HEAP);
+        assertThat(heap.getSize()).isEqualTo(size);
+        assertThat(heap.getUnit()).isEqualTo(unit);
+    }
+}
@@ -0,0 +1,103 @@
+package com.elmorabit.recipes.config.cache;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the statistics of the cache regions, published by {@link EhcacheMetrics} and
+ * {@link CacheStatisticsEndpointWebExtension}.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@SpringBootTest(classes = RecipesApp.class, properties = {
+    "management.endpoints.web.base-path=/management",
+    "management.endpoints.web.exposure.include=caches"
+})
+public class CacheStatisticsEndpointIT {
+
+    private static final String REGION = Author.class.getName();
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheRegionStatistics cacheRegionStatistics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc restCachesMockMvc;
+
+    private Cache<Object, Object> cache;
+
+    @BeforeEach
+    public void initTest() {
+        cache = cacheManager.getCache(REGION);
+        cache.clear();
+    }
+
+    @Test
+    public void everyRegionIsBoundToTheMeterRegistry() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            assertThat(meterRegistry.find("cache.gets").tag("cache", cacheName).functionCounters()).hasSize(2);
+            assertThat(meterRegistry.find("cache.size").tag("cache", cacheName).gauge()).isNotNull();
+            assertThat(meterRegistry.find(EhcacheMetrics.GET_LATENCY).tag("cache", cacheName).timer()).isNotNull();
+        }
+    }
+
+    @Test
+    public void getCacheStatistics() throws Exception {
+        long hits = cacheRegionStatistics.get(REGION).getCacheHits();
+        cache.put(1L, "author");
+        cache.get(1L);
+
+        restCachesMockMvc.perform(get("/management/caches"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.caches['" + REGION + "'].hits").value(hits + 1))
+            .andExpect(jsonPath("$.caches['" + REGION + "'].size").value(1))
+            .andExpect(jsonPath("$.caches['" + REGION + "'].tiers.OnHeap").value(1))
+            .andExpect(jsonPath("$.caches['" + REGION + "'].meanGetLatency").isNumber());
+    }
+
+    @Test
+    public void evictRegion() throws Exception {
+        cache.put(1L, "author");
+
+        restCachesMockMvc.perform(delete("/management/caches/{cache}", REGION))
+            .andExpect(status().isNoContent());
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    public void evictUnknownRegion() throws Exception {
+        restCachesMockMvc.perform(delete("/management/caches/{cache}", "unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getRegion() throws Exception {
+        restCachesMockMvc.perform(get("/management/caches/{cache}", REGION))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(REGION));
+    }
+}
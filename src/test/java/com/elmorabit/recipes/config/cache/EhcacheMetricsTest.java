@@ -0,0 +1,95 @@
+package com.elmorabit.recipes.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link EhcacheMetrics} of a cache region.
+ */
+public class EhcacheMetricsTest {
+
+    private static final String CACHE_NAME = "region";
+
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    private CacheRegionStatistics cacheRegionStatistics;
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        cacheManager = provider.getCacheManager(URI.create(EhcacheMetricsTest.class.getName()),
+            new DefaultConfiguration(getClass().getClassLoader()));
+        cache = cacheManager.createCache(CACHE_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(2))));
+        cacheRegionStatistics = new CacheRegionStatistics(cacheManager);
+        registry = new SimpleMeterRegistry();
+        new EhcacheMetrics(cache, CACHE_NAME, Tags.of("cacheManager", "test"), cacheRegionStatistics.get(CACHE_NAME))
+            .bindTo(registry);
+    }
+
+    @AfterEach
+    public void destroy() {
+        cacheManager.close();
+    }
+
+    @Test
+    public void countsHitsMissesPutsAndEvictions() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.get(3L);
+        cache.put(3L, "three");
+
+        assertThat(registry.get("cache.gets").tags("cache", CACHE_NAME, "result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.puts").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("cache.evictions").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("cache.tier.size").tags("tier", "OnHeap").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void countsRemovals() {
+        cache.put(1L, "one");
+        cache.remove(1L);
+
+        assertThat(registry.get("cache.removals").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void timesHitsAndMisses() {
+        cache.put(1L, "one");
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(registry.get(EhcacheMetrics.GET_LATENCY).tags("cache", CACHE_NAME, "cacheManager", "test").timer().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void statisticsAreSharedByRegion() {
+        assertThat(cacheRegionStatistics.get(CACHE_NAME)).isSameAs(cacheRegionStatistics.get(CACHE_NAME));
+        assertThat(cacheRegionStatistics.get("missing")).isNull();
+    }
+}
@@ -0,0 +1,71 @@
+package com.elmorabit.recipes.domain;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link Author#addRecipes(Recipe)}, building an author with thousands of recipes.
+ * <p>
+ * The recipes are hashed into {@link Author#getRecipes()}, so this measures how well their hash codes are distributed:
+ * with a constant hash code the set degenerates into a list and building it is quadratic.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorBenchmark {
+
+    @Param("10000")
+    private int recipeCount;
+
+    private List<Recipe> recipes;
+
+    @Setup
+    public void createRecipes() {
+        recipes = new ArrayList<>(recipeCount);
+        for (long i = 0; i < recipeCount; i++) {
+            Recipe recipe = new Recipe().title("Recipe " + i);
+            // Recipes read from the database already have their identity
+            recipe.getUuid();
+            recipes.add(recipe);
+        }
+    }
+
+    @Benchmark
+    public Author addRecipes() {
+        Author author = new Author();
+        for (Recipe recipe : recipes) {
+            author.addRecipes(recipe);
+        }
+        return author;
+    }
+
+    @Benchmark
+    public Author addPersistedRecipes() {
+        Author author = new Author();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            author.addRecipes(recipe);
+            // The hash code must not change when the recipe gets its id, or the set would lose it
+            recipe.setId((long) i);
+            if (!author.getRecipes().contains(recipe)) {
+                throw new IllegalStateException("Recipe " + i + " is lost once persisted");
+            }
+            recipe.setId(null);
+        }
+        return author;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
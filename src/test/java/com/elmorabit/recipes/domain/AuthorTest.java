@@ -1,22 +1,40 @@
 package com.elmorabit.recipes.domain;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
-import com.elmorabit.recipes.web.rest.TestUtil;
 
 public class AuthorTest {
 
     @Test
-    public void equalsVerifier() throws Exception {
-        TestUtil.equalsVerifier(Author.class);
+    public void equalsVerifier() {
         Author author1 = new Author();
-        author1.setId(1L);
+        assertThat(author1.toString()).isNotNull();
+        assertThat(author1).isEqualTo(author1);
+        assertThat(author1).isNotEqualTo(new Object());
+        assertThat(author1).isNotEqualTo(null);
         Author author2 = new Author();
+        author1.setId(1L);
         author2.setId(author1.getId());
+        assertThat(author1).isNotEqualTo(author2);
+        author2.setUuid(author1.getUuid());
         assertThat(author1).isEqualTo(author2);
+        assertThat(author1.hashCode()).isEqualTo(author2.hashCode());
         author2.setId(2L);
-        assertThat(author1).isNotEqualTo(author2);
-        author1.setId(null);
-        assertThat(author1).isNotEqualTo(author2);
+        assertThat(author1).isEqualTo(author2);
+    }
+
+    @Test
+    public void hashCodeDoesNotChangeWhenPersisted() {
+        Author author = new Author();
+        Set<Author> authors = new HashSet<>();
+        authors.add(author);
+        int hashCode = author.hashCode();
+        author.setId(1L);
+        assertThat(author.hashCode()).isEqualTo(hashCode);
+        assertThat(authors).contains(author);
     }
 }
@@ -1,22 +1,40 @@
 package com.elmorabit.recipes.domain;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
-import com.elmorabit.recipes.web.rest.TestUtil;
 
 public class IngredientTest {
 
     @Test
-    public void equalsVerifier() throws Exception {
-        TestUtil.equalsVerifier(Ingredient.class);
+    public void equalsVerifier() {
         Ingredient ingredient1 = new Ingredient();
-        ingredient1.setId(1L);
+        assertThat(ingredient1.toString()).isNotNull();
+        assertThat(ingredient1).isEqualTo(ingredient1);
+        assertThat(ingredient1).isNotEqualTo(new Object());
+        assertThat(ingredient1).isNotEqualTo(null);
         Ingredient ingredient2 = new Ingredient();
+        ingredient1.setId(1L);
         ingredient2.setId(ingredient1.getId());
+        assertThat(ingredient1).isNotEqualTo(ingredient2);
+        ingredient2.setUuid(ingredient1.getUuid());
         assertThat(ingredient1).isEqualTo(ingredient2);
+        assertThat(ingredient1.hashCode()).isEqualTo(ingredient2.hashCode());
         ingredient2.setId(2L);
-        assertThat(ingredient1).isNotEqualTo(ingredient2);
-        ingredient1.setId(null);
-        assertThat(ingredient1).isNotEqualTo(ingredient2);
+        assertThat(ingredient1).isEqualTo(ingredient2);
+    }
+
+    @Test
+    public void hashCodeDoesNotChangeWhenPersisted() {
+        Ingredient ingredient = new Ingredient();
+        Set<Ingredient> ingredients = new HashSet<>();
+        ingredients.add(ingredient);
+        int hashCode = ingredient.hashCode();
+        ingredient.setId(1L);
+        assertThat(ingredient.hashCode()).isEqualTo(hashCode);
+        assertThat(ingredients).contains(ingredient);
     }
 }
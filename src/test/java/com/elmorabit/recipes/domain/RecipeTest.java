@@ -1,22 +1,40 @@
 package com.elmorabit.recipes.domain;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
-import com.elmorabit.recipes.web.rest.TestUtil;
 
 public class RecipeTest {
 
     @Test
-    public void equalsVerifier() throws Exception {
-        TestUtil.equalsVerifier(Recipe.class);
+    public void equalsVerifier() {
         Recipe recipe1 = new Recipe();
-        recipe1.setId(1L);
+        assertThat(recipe1.toString()).isNotNull();
+        assertThat(recipe1).isEqualTo(recipe1);
+        assertThat(recipe1).isNotEqualTo(new Object());
+        assertThat(recipe1).isNotEqualTo(null);
         Recipe recipe2 = new Recipe();
+        recipe1.setId(1L);
         recipe2.setId(recipe1.getId());
+        assertThat(recipe1).isNotEqualTo(recipe2);
+        recipe2.setUuid(recipe1.getUuid());
         assertThat(recipe1).isEqualTo(recipe2);
+        assertThat(recipe1.hashCode()).isEqualTo(recipe2.hashCode());
         recipe2.setId(2L);
-        assertThat(recipe1).isNotEqualTo(recipe2);
-        recipe1.setId(null);
-        assertThat(recipe1).isNotEqualTo(recipe2);
+        assertThat(recipe1).isEqualTo(recipe2);
+    }
+
+    @Test
+    public void hashCodeDoesNotChangeWhenPersisted() {
+        Recipe recipe = new Recipe();
+        Set<Recipe> recipes = new HashSet<>();
+        recipes.add(recipe);
+        int hashCode = recipe.hashCode();
+        recipe.setId(1L);
+        assertThat(recipe.hashCode()).isEqualTo(hashCode);
+        assertThat(recipes).contains(recipe);
     }
 }
@@ -0,0 +1,92 @@
+package com.elmorabit.recipes.load;
+
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.service.importer.RecipeRecordReader;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fake data loaded by Liquibase in the {@code faker} context, scaled up to any number of recipes.
+ * <p>
+ * The rows of {@code config/liquibase/fake-data} are reused in turn, with a sequence number appended to the names so that
+ * every recipe, author and ingredient is distinct. A new author is created every {@code recipesPerAuthor} recipes.
+ */
+class FakeDataRecipes implements RecipeRecordReader {
+
+    private static final String FAKE_DATA = "config/liquibase/fake-data/";
+
+    private final List<String[]> recipes = readRows("recipe.csv");
+
+    private final List<String[]> ingredients = readRows("ingredient.csv");
+
+    private final List<String[]> authors = readRows("author.csv");
+
+    private final int count;
+
+    private final int ingredientsPerRecipe;
+
+    private final int recipesPerAuthor;
+
+    private int next;
+
+    FakeDataRecipes(int count, int ingredientsPerRecipe, int recipesPerAuthor) {
+        this.count = count;
+        this.ingredientsPerRecipe = ingredientsPerRecipe;
+        this.recipesPerAuthor = recipesPerAuthor;
+    }
+
+    @Override
+    public Recipe read() {
+        if (next == count) {
+            return null;
+        }
+        int i = next++;
+        String[] recipeRow = recipes.get(i % recipes.size());
+        int authorNumber = i / recipesPerAuthor;
+        String[] authorRow = authors.get(authorNumber % authors.size());
+        Recipe recipe = new Recipe()
+            .title(recipeRow[1] + " #" + i)
+            .image(recipeRow[2])
+            .description(recipeRow[3])
+            .author(new Author().name(authorRow[1] + " #" + authorNumber).website(authorRow[2]));
+        for (int j = 0; j < ingredientsPerRecipe; j++) {
+            String[] ingredientRow = ingredients.get((i + j) % ingredients.size());
+            recipe.addIngredients(new Ingredient()
+                .quantity(Integer.valueOf(ingredientRow[1]))
+                .unit(ingredientRow[2])
+                .name(ingredientRow[3] + " #" + (i + j) % (ingredients.size() * 10)));
+        }
+        return recipe;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static List<String[]> readRows(String file) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new ClassPathResource(FAKE_DATA + file).getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(line.split(";", -1));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+}
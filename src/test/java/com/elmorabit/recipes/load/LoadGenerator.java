@@ -0,0 +1,389 @@
+package com.elmorabit.recipes.load;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.service.importer.RecipeImportService;
+import com.elmorabit.recipes.service.search.RecipeSearchIndexSynchronizer;
+
+import io.github.jhipster.config.JHipsterConstants;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator driving the REST API of the application over HTTP, and reporting the throughput and latency percentiles
+ * of each kind of request.
+ * <p>
+ * The application is started in-process with the {@code dev} profile, on a random port and an in-memory H2 database.
+ * Once Liquibase has created the schema and loaded the fake data, the catalog is filled with the same fake data scaled up
+ * to the requested number of recipes. Each worker thread logs in as {@code user}, then sends requests back to back,
+ * picking each one at random according to the mix: a page of the recipe listing, a single recipe, a new login, or the
+ * creation of a recipe. Latencies measured after the warm-up are recorded in an HdrHistogram per kind of request,
+ * printed at the end of the run and written as {@code .hgrm} files.
+ * <p>
+ * The settings are read from system properties, see {@link Settings}. Run it with the {@link #main(String[])} method, from
+ * the test classpath, or with the {@code load-test} Maven profile.
+ */
+public final class LoadGenerator {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String LOGIN = "user";
+
+    private static final String PASSWORD = "user";
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    private final Settings settings;
+
+    private final String baseUrl;
+
+    private final long[] recipeIds;
+
+    private final Map<Operation, Statistics> statistics = new EnumMap<>(Operation.class);
+
+    private final AtomicLong createdRecipes = new AtomicLong();
+
+    private volatile long measurementStart;
+
+    private LoadGenerator(Settings settings, String baseUrl, long[] recipeIds) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.recipeIds = recipeIds;
+        for (Operation operation : Operation.values()) {
+            statistics.put(operation, new Statistics());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RecipesApp.class)
+            .profiles(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+            .run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+                "--application.search.rebuild-on-startup=false",
+                "--logging.level.ROOT=WARN",
+                "--logging.level.io.github.jhipster=WARN",
+                "--logging.level.com.elmorabit.recipes=WARN");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            awaitLiquibase(jdbcTemplate);
+            context.getBean(RecipeSearchIndexSynchronizer.class).rebuild();
+
+            long start = System.nanoTime();
+            context.getBean(RecipeImportService.class).importRecipes(
+                new FakeDataRecipes(settings.recipes, settings.ingredientsPerRecipe, settings.recipesPerAuthor), 0, progress -> { });
+            long[] recipeIds = jdbcTemplate.queryForList("select id from recipe", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+            System.out.printf("Seeded %d recipes in %d ms%n", recipeIds.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/";
+            LoadGenerator generator = new LoadGenerator(settings, baseUrl, recipeIds);
+            generator.run();
+            generator.report(System.out);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Wait for the schema and the fake data, as Liquibase runs asynchronously with the {@code dev} profile.
+     */
+    private static void awaitLiquibase(JdbcTemplate jdbcTemplate) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (true) {
+            try {
+                if (jdbcTemplate.queryForObject("select count(*) from databasechangeloglock where locked = true", Integer.class) == 0
+                    && jdbcTemplate.queryForObject("select count(*) from recipe", Integer.class) > 0) {
+                    return;
+                }
+            } catch (DataAccessException e) {
+                // The tables are not created yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Liquibase did not update the database in time");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf("Running %d threads for %d s after a %d s warm-up, mix %s%n",
+            settings.threads, settings.duration, settings.warmup, settings.mix);
+        long now = System.nanoTime();
+        measurementStart = now + TimeUnit.SECONDS.toNanos(settings.warmup);
+        long end = measurementStart + TimeUnit.SECONDS.toNanos(settings.duration);
+        ExecutorService workers = Executors.newFixedThreadPool(settings.threads);
+        for (int i = 0; i < settings.threads; i++) {
+            workers.execute(() -> work(end));
+        }
+        workers.shutdown();
+        workers.awaitTermination(settings.warmup + settings.duration + 60, TimeUnit.SECONDS);
+    }
+
+    private void work(long end) {
+        String token = null;
+        while (System.nanoTime() < end) {
+            Operation operation = token == null ? Operation.LOGIN : settings.mix.pick(ThreadLocalRandom.current());
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                HttpURLConnection connection = send(operation, token);
+                success = connection.getResponseCode() < 400;
+                if (success && operation == Operation.LOGIN) {
+                    token = connection.getHeaderField("Authorization");
+                }
+                consume(connection, success);
+            } catch (IOException e) {
+                success = false;
+            }
+            long stop = System.nanoTime();
+            if (start >= measurementStart) {
+                statistics.get(operation).record(stop - start, success);
+            }
+        }
+    }
+
+    private HttpURLConnection send(Operation operation, String token) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path;
+        String body = null;
+        switch (operation) {
+            case LIST:
+                int pages = (recipeIds.length + PAGE_SIZE - 1) / PAGE_SIZE;
+                path = "recipes?page=" + random.nextInt(pages) + "&size=" + PAGE_SIZE;
+                break;
+            case GET:
+                path = "recipes/" + recipeIds[random.nextInt(recipeIds.length)];
+                break;
+            case LOGIN:
+                path = "authenticate";
+                body = "{\"username\":\"" + LOGIN + "\",\"password\":\"" + PASSWORD + "\"}";
+                break;
+            case WRITE:
+                long number = createdRecipes.incrementAndGet();
+                path = "recipes";
+                body = "{\"title\":\"Load test recipe " + number + "\",\"description\":\"Created by the load generator\"}";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json");
+        if (token != null) {
+            connection.setRequestProperty("Authorization", token);
+        }
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(bytes.length);
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(bytes);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Read the whole response body, so that the connection is kept alive for the next request of the worker.
+     */
+    private static void consume(HttpURLConnection connection, boolean success) throws IOException {
+        try (InputStream input = success ? connection.getInputStream() : connection.getErrorStream()) {
+            if (input != null) {
+                byte[] buffer = new byte[8192];
+                while (input.read(buffer) != -1) {
+                    // Discard the body
+                }
+            }
+        }
+    }
+
+    private void report(PrintStream out) throws IOException {
+        Path output = Paths.get(settings.output);
+        Files.createDirectories(output);
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        out.printf("%n%-8s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+            "request", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Operation, Statistics> entry : statistics.entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long errors = entry.getValue().errors.sum();
+            total.add(histogram);
+            totalErrors += errors;
+            printLine(out, entry.getKey().parameter, histogram, errors);
+            try (PrintStream file = new PrintStream(output.resolve(entry.getKey().parameter + ".hgrm").toFile(), "UTF-8")) {
+                histogram.outputPercentileDistribution(file, 1000.0);
+            }
+        }
+        printLine(out, "total", total, totalErrors);
+        out.printf("%nLatency distributions, in milliseconds, written to %s%n", output.toAbsolutePath());
+    }
+
+    private void printLine(PrintStream out, String name, Histogram histogram, long errors) {
+        out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+            name,
+            histogram.getTotalCount(),
+            errors,
+            histogram.getTotalCount() / (double) settings.duration,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * The kinds of request sent by the workers, named in the mix by their parameter.
+     */
+    enum Operation {
+        LIST("list"), GET("get"), LOGIN("login"), WRITE("write");
+
+        private final String parameter;
+
+        Operation(String parameter) {
+            this.parameter = parameter;
+        }
+
+        static Operation fromParameter(String parameter) {
+            for (Operation operation : values()) {
+                if (operation.parameter.equals(parameter)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown request " + parameter + " in the mix");
+        }
+    }
+
+    /**
+     * The latencies, in microseconds, and the number of failed requests of a kind of request.
+     */
+    private static final class Statistics {
+
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long nanos, boolean success) {
+            histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (!success) {
+                errors.increment();
+            }
+        }
+    }
+
+    /**
+     * The relative weights of the kinds of request, parsed from a list such as {@code list=60,get=30,login=5,write=5}.
+     */
+    static final class Mix {
+
+        private final String definition;
+
+        private final Operation[] operations;
+
+        private final int[] cumulativeWeights;
+
+        Mix(String definition) {
+            this.definition = definition;
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String part : definition.split(",")) {
+                String[] nameAndWeight = part.trim().split("=");
+                if (nameAndWeight.length != 2) {
+                    throw new IllegalArgumentException("Invalid mix " + definition);
+                }
+                int weight = Integer.parseInt(nameAndWeight[1].trim());
+                if (weight > 0) {
+                    weights.put(Operation.fromParameter(nameAndWeight[0].trim()), weight);
+                }
+            }
+            if (weights.isEmpty()) {
+                throw new IllegalArgumentException("Invalid mix " + definition);
+            }
+            operations = weights.keySet().toArray(new Operation[0]);
+            cumulativeWeights = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += weights.get(operations[i]);
+                cumulativeWeights[i] = sum;
+            }
+        }
+
+        Operation pick(Random random) {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (value >= cumulativeWeights[i]) {
+                i++;
+            }
+            return operations[i];
+        }
+
+        @Override
+        public String toString() {
+            return definition;
+        }
+    }
+
+    /**
+     * The settings of a run, read from the {@code load.*} system properties.
+     */
+    static final class Settings {
+
+        private int recipes;
+
+        private int ingredientsPerRecipe;
+
+        private int recipesPerAuthor;
+
+        private int threads;
+
+        private long warmup;
+
+        private long duration;
+
+        private Mix mix;
+
+        private String output;
+
+        static Settings fromSystemProperties() {
+            Settings settings = new Settings();
+            settings.recipes = Integer.getInteger("load.recipes", 10_000);
+            settings.ingredientsPerRecipe = Integer.getInteger("load.ingredients-per-recipe", 8);
+            settings.recipesPerAuthor = Integer.getInteger("load.recipes-per-author", 20);
+            settings.threads = Integer.getInteger("load.threads", 16);
+            settings.warmup = Long.getLong("load.warmup", 10);
+            settings.duration = Long.getLong("load.duration", 60);
+            settings.mix = new Mix(System.getProperty("load.mix", "list=60,get=30,login=5,write=5"));
+            settings.output = System.getProperty("load.output", "target/load-test");
+            return settings;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.config.audit.AuditEventConverter;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link CustomAuditEventRepository#truncate(Map)}, run on the data of every audit event.
+ * <p>
+ * The data of an authentication event is two short values, a remote address and a session id; the long data has one value
+ * over the column length, whose warning is not logged here.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomAuditEventRepositoryBenchmark {
+
+    @Param({"false", "true"})
+    private boolean longData;
+
+    private CustomAuditEventRepository customAuditEventRepository;
+
+    private Map<String, String> data;
+
+    @Setup
+    public void createData() {
+        // Truncating does not use the database
+        customAuditEventRepository = new CustomAuditEventRepository(null, new AuditEventConverter(), null);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(CustomAuditEventRepository.class)).setLevel(Level.ERROR);
+        data = new HashMap<>();
+        data.put("remoteAddress", "127.0.0.1");
+        data.put("sessionId", "4A8F2C1B9D7E6F5A3B2C1D0E9F8A7B6C");
+        if (longData) {
+            StringBuilder message = new StringBuilder();
+            while (message.length() <= CustomAuditEventRepository.EVENT_DATA_COLUMN_MAX_LENGTH) {
+                message.append("Bad credentials for a very long login name. ");
+            }
+            data.put("message", message.toString());
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> truncate() {
+        return customAuditEventRepository.truncate(data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CustomAuditEventRepositoryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -2,18 +2,24 @@ package com.elmorabit.recipes.repository;
 
 import com.elmorabit.recipes.RecipesApp;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.config.Constants;
 import com.elmorabit.recipes.config.audit.AuditEventConverter;
 import com.elmorabit.recipes.domain.PersistentAuditEvent;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.servlet.http.HttpSession;
 import java.time.Instant;
@@ -27,6 +33,8 @@ import static com.elmorabit.recipes.repository.CustomAuditEventRepository.EVENT_
 
 /**
  * Integration tests for {@link CustomAuditEventRepository}.
+ * <p>
+ * The events are written in transactions of their own, which are committed: they are deleted before and after each test.
  */
 @SpringBootTest(classes = RecipesApp.class)
 @Transactional
@@ -38,12 +46,22 @@ public class CustomAuditEventRepositoryIT {
     @Autowired
     private AuditEventConverter auditEventConverter;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AuditEventWriter auditEventWriter;
+
     private CustomAuditEventRepository customAuditEventRepository;
 
     @BeforeEach
     public void setup() {
-        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter);
-        persistenceAuditEventRepository.deleteAll();
+        auditEventWriter = new AuditEventWriter(jdbcTemplate, transactionManager, new ApplicationProperties());
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            auditEventWriter);
+        deleteAuditEvents();
         Instant oneHourAgo = Instant.now().minusSeconds(3600);
 
         PersistentAuditEvent testUserEvent = new PersistentAuditEvent();
@@ -65,12 +83,23 @@ public class CustomAuditEventRepositoryIT {
         testOtherUserEvent.setAuditEventDate(oneHourAgo);
     }
 
+    @AfterEach
+    public void deleteAuditEvents() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from jhi_persistent_audit_evt_data");
+            jdbcTemplate.update("delete from jhi_persistent_audit_event");
+        });
+    }
+
     @Test
     public void addAuditEvent() {
         Map<String, Object> data = new HashMap<>();
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -92,6 +121,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", largeData);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -116,6 +146,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", details);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -129,6 +160,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", null);
         AuditEvent event = new AuditEvent("test-user", "test-type", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(1);
         PersistentAuditEvent persistentAuditEvent = persistentAuditEvents.get(0);
@@ -141,6 +173,7 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent(Constants.ANONYMOUS_USER, "test-type", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(0);
     }
@@ -151,8 +184,101 @@ public class CustomAuditEventRepositoryIT {
         data.put("test-key", "test-value");
         AuditEvent event = new AuditEvent("test-user", "AUTHORIZATION_FAILURE", data);
         customAuditEventRepository.add(event);
+        auditEventWriter.flush();
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(0);
     }
 
+    @Test
+    public void addAuditEventIsWrittenWhenFlushed() {
+        AuditEvent event = new AuditEvent("test-user", "test-type", new HashMap<>());
+        customAuditEventRepository.add(event);
+        assertThat(auditEventWriter.getQueued()).isEqualTo(1);
+        assertThat(persistenceAuditEventRepository.findAll()).isEmpty();
+
+        auditEventWriter.flush();
+        assertThat(auditEventWriter.getQueued()).isEqualTo(0);
+        assertThat(persistenceAuditEventRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    public void addAuditEventsWrittenInBatches() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setBatchSize(2);
+        auditEventWriter = new AuditEventWriter(jdbcTemplate, transactionManager, applicationProperties);
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            auditEventWriter);
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("index", i);
+            data.put("test-key", "test-value");
+            customAuditEventRepository.add(new AuditEvent("test-user-" + i, "test-type", data));
+        }
+        auditEventWriter.flush();
+
+        List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
+        assertThat(persistentAuditEvents).hasSize(5);
+        for (PersistentAuditEvent persistentAuditEvent : persistentAuditEvents) {
+            String index = persistentAuditEvent.getData().get("index");
+            assertThat(persistentAuditEvent.getPrincipal()).isEqualTo("test-user-" + index);
+            assertThat(persistentAuditEvent.getData()).containsEntry("test-key", "test-value");
+        }
+    }
+
+    @Test
+    public void addAuditEventWithFullQueueWritesItWithCallerRunsPolicy() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setQueueCapacity(1);
+        applicationProperties.getAudit().setOverflowPolicy(ApplicationProperties.Audit.OverflowPolicy.CALLER_RUNS);
+        auditEventWriter = new AuditEventWriter(jdbcTemplate, transactionManager, applicationProperties);
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            auditEventWriter);
+        customAuditEventRepository.add(new AuditEvent("test-user", "test-type", new HashMap<>()));
+        customAuditEventRepository.add(new AuditEvent("other-test-user", "test-type", new HashMap<>()));
+
+        assertThat(auditEventWriter.getQueued()).isEqualTo(1);
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getPrincipal)
+            .containsExactly("other-test-user");
+    }
+
+    @Test
+    public void addAuditEventWithFullQueueDiscardsItWithDropPolicy() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setQueueCapacity(1);
+        applicationProperties.getAudit().setOverflowPolicy(ApplicationProperties.Audit.OverflowPolicy.DROP);
+        auditEventWriter = new AuditEventWriter(jdbcTemplate, transactionManager, applicationProperties);
+        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter,
+            auditEventWriter);
+        customAuditEventRepository.add(new AuditEvent("test-user", "test-type", new HashMap<>()));
+        customAuditEventRepository.add(new AuditEvent("other-test-user", "test-type", new HashMap<>()));
+        auditEventWriter.flush();
+
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getPrincipal)
+            .containsExactly("test-user");
+    }
+
+    @Test
+    public void addAuditEventIsKeptWhenTheCallerRollsBack() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> {
+            customAuditEventRepository.add(new AuditEvent("test-user", "test-type", new HashMap<>()));
+            auditEventWriter.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getPrincipal)
+            .containsExactly("test-user");
+    }
+
+    @Test
+    public void addAuditEventAfterStopWritesItInTheCallerThread() {
+        auditEventWriter.start();
+        auditEventWriter.stop();
+        customAuditEventRepository.add(new AuditEvent("test-user", "test-type", new HashMap<>()));
+
+        assertThat(auditEventWriter.getQueued()).isEqualTo(0);
+        assertThat(persistenceAuditEventRepository.findAll()).extracting(PersistentAuditEvent::getPrincipal)
+            .containsExactly("test-user");
+    }
 }
@@ -0,0 +1,46 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.RecipesApp;
+
+import com.mysql.cj.jdbc.result.ResultSetImpl;
+import com.mysql.cj.protocol.a.result.ResultsetRowsCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+
+import java.sql.PreparedStatement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests checking that MySQL streams the exports, which read every row with a fetch size, instead of loading
+ * the whole result set in memory.
+ * <p>
+ * Connector/J only honours the fetch size with {@code useCursorFetch=true} in the datasource URL. These tests only run
+ * with the {@code testcontainers} profile, on MySQL.
+ */
+@SpringBootTest(classes = RecipesApp.class)
+@EnabledIf(expression = "#{environment.acceptsProfiles('testcontainers')}", loadContext = true)
+public class ExportStreamingIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void assertThatTheExportQueriesFetchRowsWithACursor() {
+        for (String table : new String[] {"recipe", "ingredient", "author"}) {
+            jdbcTemplate.query(connection -> {
+                // The fetch size of the export queries, in the repositories
+                PreparedStatement statement = connection.prepareStatement("select id from " + table + " order by id");
+                statement.setFetchSize(500);
+                return statement;
+            }, (ResultSetExtractor<Void>) resultSet -> {
+                assertThat(resultSet.unwrap(ResultSetImpl.class).getRows()).as(table).isInstanceOf(ResultsetRowsCursor.class);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.elmorabit.recipes.repository;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.domain.Recipe;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests checking, with {@code EXPLAIN}, that the selective repository queries are served by an index.
+ * <p>
+ * Every statement prepared by a repository call is recorded with its parameters, then explained by H2, and the test fails
+ * if its plan reads a whole table or a whole index. Listings without any filter and the exports read every row on purpose,
+ * so they are not checked.
+ */
+@SpringBootTest(classes = {RecipesApp.class, QueryPlanIT.StatementRecordingConfiguration.class})
+@Transactional
+public class QueryPlanIT {
+
+    /**
+     * A table or index read without any condition, as printed by H2.
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("tableScan|/\\* PUBLIC\\.\\w+ \\*/");
+
+    private static final ThreadLocal<List<RecordedStatement>> RECORDED_STATEMENTS = new ThreadLocal<>();
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void recipeQueriesUseIndexes() {
+        assertIndexed(() -> recipeRepository.findWithAuthorById(1L));
+        assertIndexed(() -> recipeRepository.findFullById(1L));
+        assertIndexed(() -> recipeRepository.findWithAuthorByIdIn(Arrays.asList(1L, 2L)));
+        assertIndexed(() -> recipeRepository.findDistinctFullByIdIn(Arrays.asList(1L, 2L)));
+        assertIndexed(() -> recipeRepository.findSearchableFieldsAfter(1L, PageRequest.of(0, 10)));
+        assertIndexed(() -> recipeRepository.findAllAfter(Sort.Order.asc("id"), null, 1L, 10, Recipe.SUMMARY_GRAPH));
+        assertIndexed(() -> recipeRepository.findAllAfter(Sort.Order.desc("id"), null, 1L, 10, Recipe.SUMMARY_GRAPH));
+        assertIndexed(() -> recipeRepository.findAllAfter(Sort.Order.asc("title"), "AAA", 1L, 10, Recipe.WITH_AUTHOR_GRAPH));
+        // Descending title pages are not checked: H2 cannot read idx_recipe_title backwards, MySQL does
+    }
+
+    @Test
+    public void ingredientQueriesUseIndexes() {
+        assertIndexed(() -> ingredientRepository.findSearchableFieldsByRecipeIds(Arrays.asList(1L, 2L)));
+        assertIndexed(() -> ingredientRepository.findAllAfter(null, null, null, 1L, 10));
+        assertIndexed(() -> ingredientRepository.findAllAfter("sal", null, null, null, 10));
+        assertIndexed(() -> ingredientRepository.findAllAfter(null, 1L, null, null, 10));
+        assertIndexed(() -> ingredientRepository.findAllAfter(null, null, "g", null, 10));
+    }
+
+    @Test
+    public void authorQueriesUseIndexes() {
+        assertIndexed(() -> authorRepository.findByNameIn(Arrays.asList("AAA", "BBB")));
+        assertIndexed(() -> authorRepository.findAllAfter(null, 1L, 10));
+        assertIndexed(() -> authorRepository.findAllAfter("AA", null, 10));
+    }
+
+    @Test
+    public void auditAndUserQueriesUseIndexes() {
+        assertIndexed(() -> persistenceAuditEventRepository.findByPrincipal("user"));
+        assertIndexed(() -> persistenceAuditEventRepository.findByPrincipalAndAuditEventDateAfterAndAuditEventType("user",
+            Instant.now(), "AUTHENTICATION_FAILURE"));
+        assertIndexed(() -> persistenceAuditEventRepository.findDataByIdIn(Arrays.asList(1L, 2L)));
+        assertIndexed(() -> persistenceAuditEventRepository.findMinIdByAuditEventDateBefore(Instant.now()));
+        assertIndexed(() -> persistenceAuditEventRepository.findMaxIdByAuditEventDateBefore(Instant.now()));
+        assertIndexed(() -> persistenceAuditEventRepository.deleteDataByIdBetweenAndAuditEventDateBefore(1L, 10L, Instant.now()));
+        assertIndexed(() -> persistenceAuditEventRepository.deleteByIdBetweenAndAuditEventDateBefore(1L, 10L, Instant.now()));
+        assertIndexed(() -> userRepository.findOneByLogin("user"));
+        assertIndexed(() -> userRepository.findOneWithAuthoritiesByLogin("user"));
+        assertIndexed(() -> userRepository.findOneByActivationKey("key"));
+        assertIndexed(() -> userRepository.findOneByResetKey("key"));
+    }
+
+    private void assertIndexed(Runnable query) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        RECORDED_STATEMENTS.set(statements);
+        try {
+            query.run();
+        } finally {
+            RECORDED_STATEMENTS.remove();
+        }
+        assertThat(statements).isNotEmpty();
+        for (RecordedStatement statement : statements) {
+            String plan = explain(statement);
+            assertThat(FULL_SCAN.matcher(plan).find()).as("Full scan in %s", plan).isFalse();
+        }
+    }
+
+    private String explain(RecordedStatement statement) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+                for (Map.Entry<Integer, Object> parameter : statement.parameters.entrySet()) {
+                    explain.setObject(parameter.getKey(), parameter.getValue());
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    StringBuilder result = new StringBuilder();
+                    while (plan.next()) {
+                        result.append(plan.getString(1));
+                    }
+                    return result.toString();
+                }
+            }
+        });
+    }
+
+    private static final class RecordedStatement {
+
+        private final String sql;
+
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Wraps the data source so that the statements prepared while {@link #assertIndexed(Runnable)} runs are recorded,
+     * with the values bound to their parameters: H2 only plans a {@code LIKE} on an index once its pattern is known.
+     */
+    @TestConfiguration
+    static class StatementRecordingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, bean, (method, result, args) ->
+                        result instanceof Connection ? proxy(Connection.class, result, QueryPlanIT::recordStatement) : result);
+                }
+            };
+        }
+    }
+
+    private static Object recordStatement(Method method, Object result, Object[] args) {
+        List<RecordedStatement> statements = RECORDED_STATEMENTS.get();
+        if (statements == null || !(result instanceof PreparedStatement) || !method.getName().equals("prepareStatement")) {
+            return result;
+        }
+        RecordedStatement statement = new RecordedStatement((String) args[0]);
+        statements.add(statement);
+        return proxy(PreparedStatement.class, result, (setter, ignored, values) -> {
+            if (setter.getName().startsWith("set") && values != null && values.length >= 2 && values[0] instanceof Integer) {
+                statement.parameters.put((Integer) values[0], setter.getName().equals("setNull") ? null : values[1]);
+            }
+            return ignored;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultDecorator {
+
+        Object decorate(Method method, Object result, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultDecorator decorator) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return decorator.decorate(method, method.invoke(target, args), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
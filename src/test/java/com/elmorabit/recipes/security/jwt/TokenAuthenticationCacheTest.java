@@ -0,0 +1,66 @@
+package com.elmorabit.recipes.security.jwt;
+
+import com.elmorabit.recipes.security.AuthoritiesConstants;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenAuthenticationCacheTest {
+
+    private static final List<GrantedAuthority> AUTHORITIES =
+        Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private final TokenAuthenticationCache cache = new TokenAuthenticationCache(now::get);
+
+    @Test
+    public void getsVerifiedTokensUntilTheyExpire() {
+        cache.put("token", user("test-user"), AUTHORITIES, 2000);
+
+        assertThat(cache.get("token").getPrincipal().getUsername()).isEqualTo("test-user");
+        assertThat(cache.get("token").getAuthorities()).isEqualTo(AUTHORITIES);
+        assertThat(cache.get("other")).isNull();
+
+        now.set(2000);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void removesExpiredTokensFirstWhenFull() {
+        cache.put("expiring", user("expiring"), AUTHORITIES, 1500);
+        for (int i = 1; i < TokenAuthenticationCache.MAX_TOKENS; i++) {
+            cache.put("token" + i, user("user" + i), AUTHORITIES, 5000);
+        }
+        now.set(1500);
+
+        cache.put("new", user("new"), AUTHORITIES, 5000);
+
+        assertThat(cache.size()).isEqualTo(TokenAuthenticationCache.MAX_TOKENS);
+        assertThat(cache.get("new")).isNotNull();
+        assertThat(cache.get("token1")).isNotNull();
+    }
+
+    @Test
+    public void staysBoundedWhenFullOfValidTokens() {
+        for (int i = 0; i < TokenAuthenticationCache.MAX_TOKENS + 10; i++) {
+            cache.put("token" + i, user("user" + i), AUTHORITIES, 5000);
+        }
+
+        assertThat(cache.size()).isEqualTo(TokenAuthenticationCache.MAX_TOKENS);
+        assertThat(cache.get("token" + (TokenAuthenticationCache.MAX_TOKENS + 9))).isNotNull();
+    }
+
+    private static User user(String login) {
+        return new User(login, "", AUTHORITIES);
+    }
+}
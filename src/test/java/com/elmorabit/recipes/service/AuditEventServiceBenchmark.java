@@ -0,0 +1,126 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.config.audit.AuditEventConverter;
+import com.elmorabit.recipes.domain.PersistentAuditEvent;
+import com.elmorabit.recipes.repository.AuditEventWriter;
+import com.elmorabit.recipes.repository.PersistenceAuditEventRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JMH benchmark of {@link AuditEventService#findAll(Pageable)}, reading pages of 100 audit events with their data from the
+ * embedded H2 database of the tests.
+ * <p>
+ * The {@code two-queries} variant is the service, reading a page of events then the data of all of them; the
+ * {@code per-event} variant converts the page as it used to, loading the data of each event with its own query. The number
+ * of statements of each variant is printed when the benchmark starts.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditEventServiceBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int DATA_PER_EVENT = 2;
+
+    @Param("5000")
+    private int eventCount;
+
+    @Param({"two-queries", "per-event"})
+    private String variant;
+
+    private ConfigurableApplicationContext context;
+
+    private Supplier<Page<AuditEvent>> findPage;
+
+    private int pageCount;
+
+    private int page;
+
+    @Setup
+    public void startApplication() {
+        context = new SpringApplicationBuilder(RecipesApp.class)
+            .run("--server.port=0", "--application.audit.queue-capacity=" + eventCount);
+        AuditEventWriter auditEventWriter = context.getBean(AuditEventWriter.class);
+        Instant now = Instant.now();
+        for (int i = 0; i < eventCount; i++) {
+            PersistentAuditEvent event = new PersistentAuditEvent();
+            event.setPrincipal("user-" + i % 50);
+            event.setAuditEventType("AUTHENTICATION_SUCCESS");
+            event.setAuditEventDate(now.minusSeconds(i));
+            Map<String, String> data = new HashMap<>();
+            data.put("remoteAddress", "10.0.0." + i % 256);
+            data.put("sessionId", "session-" + i);
+            event.setData(data);
+            auditEventWriter.add(event);
+        }
+        auditEventWriter.flush();
+        pageCount = (eventCount + PAGE_SIZE - 1) / PAGE_SIZE;
+
+        if ("per-event".equals(variant)) {
+            PersistenceAuditEventRepository persistenceAuditEventRepository = context.getBean(PersistenceAuditEventRepository.class);
+            AuditEventConverter auditEventConverter = context.getBean(AuditEventConverter.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            transactionTemplate.setReadOnly(true);
+            findPage = () -> transactionTemplate.execute(status -> persistenceAuditEventRepository.findAll(nextPage())
+                .map(auditEventConverter::convertToAuditEvent));
+        } else {
+            AuditEventService auditEventService = context.getBean(AuditEventService.class);
+            findPage = () -> auditEventService.findAll(nextPage());
+        }
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        findPage.get();
+        System.out.printf("%n%s: %d statements for a page of %d events with %d data each%n", variant,
+            statistics.getPrepareStatementCount(), PAGE_SIZE, DATA_PER_EVENT);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<AuditEvent> findAll() {
+        return findPage.get();
+    }
+
+    private Pageable nextPage() {
+        page = (page + 1) % pageCount;
+        return PageRequest.of(page, PAGE_SIZE, Sort.by("id"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuditEventServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
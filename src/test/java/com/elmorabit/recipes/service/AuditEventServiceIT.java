@@ -1,16 +1,29 @@
 package com.elmorabit.recipes.service;
 
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.domain.PersistentAuditEvent;
+import com.elmorabit.recipes.repository.AuditEventPartitionRepository;
 import com.elmorabit.recipes.repository.PersistenceAuditEventRepository;
 import com.elmorabit.recipes.RecipesApp;
 import io.github.jhipster.config.JHipsterProperties;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -29,6 +42,18 @@ public class AuditEventServiceIT {
     @Autowired
     private JHipsterProperties jHipsterProperties;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private AuditEventPartitionRepository auditEventPartitionRepository;
+
     private PersistentAuditEvent auditEventOld;
 
     private PersistentAuditEvent auditEventWithinRetention;
@@ -70,4 +95,94 @@ public class AuditEventServiceIT {
         assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-retention")).isNotEmpty();
         assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-new")).isNotEmpty();
     }
+
+    @Test
+    @Transactional
+    public void verifyOldAuditEventsAreDeletedByChunksWithTheirData() {
+        persistenceAuditEventRepository.deleteAll();
+        Instant now = Instant.now();
+        for (int i = 0; i < 10; i++) {
+            PersistentAuditEvent auditEvent = new PersistentAuditEvent();
+            auditEvent.setAuditEventDate(now.minus(i % 2 == 0 ? 10 : 1, ChronoUnit.DAYS));
+            auditEvent.setPrincipal("test-user-" + i);
+            auditEvent.setAuditEventType("test-type");
+            auditEvent.setData(Collections.singletonMap("test-key", "test-value-" + i));
+            persistenceAuditEventRepository.save(auditEvent);
+        }
+        persistenceAuditEventRepository.flush();
+
+        int chunkSize = applicationProperties.getAudit().getPurgeChunkSize();
+        long pauseMillis = applicationProperties.getAudit().getPurgePauseMillis();
+        applicationProperties.getAudit().setPurgeChunkSize(3);
+        applicationProperties.getAudit().setPurgePauseMillis(0);
+        try {
+            assertThat(auditEventService.removeAuditEventsBefore(now.minus(5, ChronoUnit.DAYS))).isEqualTo(5);
+        } finally {
+            applicationProperties.getAudit().setPurgeChunkSize(chunkSize);
+            applicationProperties.getAudit().setPurgePauseMillis(pauseMillis);
+        }
+
+        assertThat(jdbcTemplate.queryForList("select principal from jhi_persistent_audit_event", String.class))
+            .containsExactlyInAnyOrder("test-user-1", "test-user-3", "test-user-5", "test-user-7", "test-user-9");
+        assertThat(jdbcTemplate.queryForList("select value from jhi_persistent_audit_evt_data", String.class))
+            .containsExactlyInAnyOrder("test-value-1", "test-value-3", "test-value-5", "test-value-7", "test-value-9");
+        assertThat(auditEventService.removeAuditEventsBefore(now.minus(5, ChronoUnit.DAYS))).isEqualTo(0);
+    }
+
+    @Test
+    @Transactional
+    public void findAllReadsThePageAndItsDataInTwoQueries() {
+        persistenceAuditEventRepository.deleteAll();
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            PersistentAuditEvent auditEvent = new PersistentAuditEvent();
+            auditEvent.setAuditEventDate(now.minusSeconds(i));
+            auditEvent.setPrincipal("test-user-" + i);
+            auditEvent.setAuditEventType("test-type");
+            Map<String, String> data = new HashMap<>();
+            data.put("index", String.valueOf(i));
+            if (i > 0) {
+                data.put("test-key", "test-value");
+            }
+            auditEvent.setData(data);
+            persistenceAuditEventRepository.save(auditEvent);
+        }
+        persistenceAuditEventRepository.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Page<AuditEvent> page = auditEventService.findAll(PageRequest.of(0, 100, Sort.by("id")));
+        Page<AuditEvent> byDates = auditEventService.findByDates(now.minusSeconds(60), now.plusSeconds(60),
+            PageRequest.of(0, 100, Sort.by("id")));
+        // the events of each page then their data, the pages being complete without a count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(byDates.getContent()).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            AuditEvent auditEvent = page.getContent().get(i);
+            assertThat(auditEvent.getPrincipal()).isEqualTo("test-user-" + i);
+            assertThat(auditEvent.getData()).containsEntry("index", String.valueOf(i)).hasSize(i > 0 ? 2 : 1);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void verifyOldAuditEventsAreDeletedByRowsWithoutPartitions() {
+        assertThat(auditEventPartitionRepository.isPartitioned()).isFalse();
+        persistenceAuditEventRepository.deleteAll();
+        persistenceAuditEventRepository.save(auditEventOld);
+        persistenceAuditEventRepository.save(auditEventNew);
+        persistenceAuditEventRepository.flush();
+
+        auditEventService.maintainPartitions(Instant.now(), Instant.now());
+        assertThat(persistenceAuditEventRepository.findAll()).hasSize(2);
+
+        auditEventService.removeOldAuditEvents();
+        assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-old")).isEmpty();
+        assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-new")).isNotEmpty();
+    }
 }
@@ -0,0 +1,155 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.config.audit.AuditEventConverter;
+import com.elmorabit.recipes.repository.AuditEventPartitionRepository;
+import com.elmorabit.recipes.repository.PersistenceAuditEventRepository;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the partition periods and the partition maintenance of {@link AuditEventService}.
+ */
+public class AuditEventServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private static final LocalDate FIRST_BOUND = LocalDate.of(2026, 9, 21);
+
+    private static final LocalDate SECOND_BOUND = LocalDate.of(2026, 9, 28);
+
+    private static final LocalDate LAST_BOUND = LocalDate.of(2026, 11, 16);
+
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private AuditEventPartitionRepository auditEventPartitionRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private AuditEventService auditEventService;
+
+    @BeforeEach
+    public void init() {
+        persistenceAuditEventRepository = mock(PersistenceAuditEventRepository.class);
+        auditEventPartitionRepository = mock(AuditEventPartitionRepository.class);
+        when(auditEventPartitionRepository.isPartitioned()).thenReturn(true);
+        when(auditEventPartitionRepository.findPartitionBounds()).thenReturn(Arrays.asList(FIRST_BOUND, SECOND_BOUND, LAST_BOUND));
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setPartitionDays(7);
+        applicationProperties.getAudit().setPartitionsAhead(4);
+        applicationProperties.getAudit().setPurgeChunkSize(10);
+        applicationProperties.getAudit().setPurgePauseMillis(1);
+        auditEventService = new AuditEventService(persistenceAuditEventRepository, mock(AuditEventConverter.class),
+            new JHipsterProperties(), applicationProperties, mock(PlatformTransactionManager.class), auditEventPartitionRepository,
+            mock(ScheduledLockService.class));
+    }
+
+    @AfterEach
+    public void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    public void maintainPartitionsAddsTheMissingPartitions() {
+        when(auditEventPartitionRepository.findPartitionBounds()).thenReturn(Collections.singletonList(LocalDate.of(2026, 11, 2)));
+
+        auditEventService.maintainPartitions(NOW, null);
+
+        verify(auditEventPartitionRepository).addPartitions(Arrays.asList(LocalDate.of(2026, 11, 9), LAST_BOUND));
+        verify(auditEventPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    public void maintainPartitionsDropsTheExpiredPartitionsAfterDeletingTheirData() {
+        when(auditEventPartitionRepository.findIdRange(FIRST_BOUND)).thenReturn(new Long[] {1L, 25L});
+        when(auditEventPartitionRepository.findIdRange(SECOND_BOUND)).thenReturn(new Long[] {null, null});
+
+        auditEventService.maintainPartitions(NOW, at(SECOND_BOUND));
+
+        verify(auditEventPartitionRepository, never()).addPartitions(any());
+        verify(persistenceAuditEventRepository).deleteDataByIdBetweenAndAuditEventDateBefore(1L, 10L, at(FIRST_BOUND));
+        verify(persistenceAuditEventRepository).deleteDataByIdBetweenAndAuditEventDateBefore(11L, 20L, at(FIRST_BOUND));
+        verify(persistenceAuditEventRepository).deleteDataByIdBetweenAndAuditEventDateBefore(21L, 25L, at(FIRST_BOUND));
+        verify(persistenceAuditEventRepository, never()).deleteByIdBetweenAndAuditEventDateBefore(anyLong(), anyLong(), any());
+        verify(auditEventPartitionRepository).dropPartition(FIRST_BOUND);
+        verify(auditEventPartitionRepository).dropPartition(SECOND_BOUND);
+        verify(auditEventPartitionRepository, never()).dropPartition(LAST_BOUND);
+    }
+
+    @Test
+    public void maintainPartitionsKeepsThePartitionsOfAnInterruptedPurge() {
+        when(auditEventPartitionRepository.findIdRange(FIRST_BOUND)).thenReturn(new Long[] {1L, 25L});
+        Thread.currentThread().interrupt();
+
+        auditEventService.maintainPartitions(NOW, at(SECOND_BOUND));
+
+        verify(persistenceAuditEventRepository).deleteDataByIdBetweenAndAuditEventDateBefore(1L, 10L, at(FIRST_BOUND));
+        verify(persistenceAuditEventRepository, never()).deleteDataByIdBetweenAndAuditEventDateBefore(11L, 20L, at(FIRST_BOUND));
+        verify(auditEventPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    public void maintainPartitionsDoesNothingWithoutPartitions() {
+        when(auditEventPartitionRepository.isPartitioned()).thenReturn(false);
+
+        auditEventService.maintainPartitions(NOW, NOW);
+
+        verify(auditEventPartitionRepository, never()).findPartitionBounds();
+        verify(auditEventPartitionRepository, never()).addPartitions(any());
+        verify(auditEventPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    public void missingPartitionBoundsStartAfterTheCurrentWeek() {
+        // 2026-10-18 is a Sunday, the current week ends on Monday 2026-10-19
+        assertThat(AuditEventService.missingPartitionBounds(null, LocalDate.of(2026, 10, 18), 7, 2)).containsExactly(
+            LocalDate.of(2026, 10, 19), LocalDate.of(2026, 10, 26), LocalDate.of(2026, 11, 2));
+    }
+
+    @Test
+    public void missingPartitionBoundsOnAMonday() {
+        assertThat(AuditEventService.missingPartitionBounds(null, LocalDate.of(2026, 10, 19), 7, 0)).containsExactly(
+            LocalDate.of(2026, 10, 26));
+    }
+
+    @Test
+    public void missingPartitionBoundsContinueAfterTheLastPartition() {
+        assertThat(AuditEventService.missingPartitionBounds(LocalDate.of(2026, 10, 26), LocalDate.of(2026, 10, 18), 7, 2))
+            .containsExactly(LocalDate.of(2026, 11, 2));
+        assertThat(AuditEventService.missingPartitionBounds(LocalDate.of(2026, 11, 2), LocalDate.of(2026, 10, 18), 7, 2))
+            .isEmpty();
+    }
+
+    @Test
+    public void missingPartitionBoundsCatchUpAfterALongPause() {
+        assertThat(AuditEventService.missingPartitionBounds(LocalDate.of(2026, 10, 12), LocalDate.of(2026, 10, 27), 7, 0))
+            .containsExactly(LocalDate.of(2026, 10, 19), LocalDate.of(2026, 10, 26), LocalDate.of(2026, 11, 2));
+    }
+
+    @Test
+    public void missingPartitionBoundsByDay() {
+        assertThat(AuditEventService.missingPartitionBounds(null, LocalDate.of(2026, 10, 18), 1, 2)).containsExactly(
+            LocalDate.of(2026, 10, 19), LocalDate.of(2026, 10, 20), LocalDate.of(2026, 10, 21));
+    }
+
+    private static Instant at(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,120 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.service.importer.RecipeImportService;
+import com.elmorabit.recipes.service.importer.RecipeRecordReader;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link RecipeService#findAll(org.springframework.data.domain.Pageable, RecipeView)}, reading the pages
+ * of the recipe listing in turn from the embedded H2 database of the tests.
+ * <p>
+ * The application is started with the test configuration and the second-level cache enabled, as in production, and
+ * the catalog is filled by a bulk import.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int INGREDIENTS_PER_RECIPE = 8;
+
+    private static final int AUTHOR_COUNT = 50;
+
+    @Param("2000")
+    private int recipeCount;
+
+    @Param({"summary", "with-author", "full"})
+    private String view;
+
+    private ConfigurableApplicationContext context;
+
+    private RecipeService recipeService;
+
+    private RecipeView recipeView;
+
+    private int pageCount;
+
+    private int page;
+
+    @Setup
+    public void startApplication() throws IOException {
+        context = new SpringApplicationBuilder(RecipesApp.class)
+            .run("--server.port=0", "--spring.jpa.properties.hibernate.cache.use_second_level_cache=true");
+        recipeService = context.getBean(RecipeService.class);
+        recipeView = RecipeView.fromParameter(view).orElseThrow(IllegalArgumentException::new);
+        context.getBean(RecipeImportService.class).importRecipes(new GeneratedRecipes(recipeCount), 0, progress -> { });
+        pageCount = (recipeCount + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Recipe> findAll() {
+        page = (page + 1) % pageCount;
+        return recipeService.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("id")), recipeView);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RecipeServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Recipes sharing {@link #AUTHOR_COUNT} authors, with {@link #INGREDIENTS_PER_RECIPE} ingredients each.
+     */
+    private static final class GeneratedRecipes implements RecipeRecordReader {
+
+        private final int count;
+
+        private int next;
+
+        private GeneratedRecipes(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public Recipe read() {
+            if (next == count) {
+                return null;
+            }
+            int i = next++;
+            Recipe recipe = new Recipe()
+                .title("Recipe " + i)
+                .image("https://example.com/recipes/" + i + ".jpg")
+                .description("A generated recipe, number " + i)
+                .author(new Author().name("Author " + i % AUTHOR_COUNT));
+            for (int j = 0; j < INGREDIENTS_PER_RECIPE; j++) {
+                recipe.addIngredients(new Ingredient().name("Ingredient " + (i + j) % 100).quantity(j * 10).unit("g"));
+            }
+            return recipe;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
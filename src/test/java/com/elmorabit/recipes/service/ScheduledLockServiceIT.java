@@ -0,0 +1,175 @@
+package com.elmorabit.recipes.service;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.repository.ScheduledLockRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link ScheduledLockService}, with two nodes: two application contexts sharing one H2 database.
+ */
+public class ScheduledLockServiceIT {
+
+    private static ConfigurableApplicationContext node1;
+
+    private static ConfigurableApplicationContext node2;
+
+    @BeforeAll
+    public static void startNodes() {
+        node1 = startNode();
+        node2 = startNode();
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        node2.close();
+        node1.close();
+    }
+
+    @Test
+    public void assertThatAJobLockedByANodeIsSkippedByTheOther() {
+        AtomicInteger node2Runs = new AtomicInteger();
+        boolean node1Ran = lockService(node1).runLocked("held", () -> {
+            assertThat(lockService(node2).runLocked("held", node2Runs::incrementAndGet)).isFalse();
+            assertThat(held(node1, "held")).isEqualTo(1);
+        });
+
+        assertThat(node1Ran).isTrue();
+        assertThat(node2Runs).hasValue(0);
+        assertThat(held(node1, "held")).isZero();
+        assertThat(runs(node2, "held", "skipped")).isEqualTo(1);
+        assertThat(lockService(node2).runLocked("held", node2Runs::incrementAndGet)).isTrue();
+        assertThat(node2Runs).hasValue(1);
+    }
+
+    @Test
+    public void assertThatAJobTriggeredOnBothNodesRunsOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Runnable job = () -> {
+            runs.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> ran1 = executor.submit(trigger(start, lockService(node1), job));
+            Future<Boolean> ran2 = executor.submit(trigger(start, lockService(node2), job));
+            start.countDown();
+
+            assertThat(ran1.get() ^ ran2.get()).isTrue();
+            assertThat(runs).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void assertThatTheLeaseOfAStoppedNodeExpires() throws Exception {
+        Instant now = Instant.now();
+        Boolean acquired = new TransactionTemplate(node1.getBean(PlatformTransactionManager.class)).execute(status ->
+            node1.getBean(ScheduledLockRepository.class).tryAcquire("expired", "stopped", now, now.plusMillis(300)));
+        assertThat(acquired).isTrue();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(lockService(node2).runLocked("expired", runs::incrementAndGet)).isFalse();
+        Thread.sleep(400);
+        assertThat(lockService(node2).runLocked("expired", runs::incrementAndGet)).isTrue();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    public void assertThatAJobIsHeldForTheMinimumHoldTime() {
+        ApplicationProperties.Scheduling scheduling = node1.getBean(ApplicationProperties.class).getScheduling();
+        scheduling.setLockMinHoldSeconds(60);
+        AtomicInteger runs = new AtomicInteger();
+        try {
+            assertThat(lockService(node1).runLocked("min-hold", runs::incrementAndGet)).isTrue();
+        } finally {
+            scheduling.setLockMinHoldSeconds(0);
+        }
+
+        assertThat(lockService(node2).runLocked("min-hold", runs::incrementAndGet)).isFalse();
+        assertThat(runs).hasValue(1);
+    }
+
+    private static Callable<Boolean> trigger(CountDownLatch start, ScheduledLockService lockService, Runnable job) {
+        return () -> {
+            start.await();
+            return lockService.runLocked("triggered", job);
+        };
+    }
+
+    private static ScheduledLockService lockService(ConfigurableApplicationContext node) {
+        return node.getBean(ScheduledLockService.class);
+    }
+
+    private static double held(ConfigurableApplicationContext node, String name) {
+        return node.getBean(MeterRegistry.class).get("scheduled.lock.held").tag("name", name).gauge().value();
+    }
+
+    private static double runs(ConfigurableApplicationContext node, String name, String outcome) {
+        return node.getBean(MeterRegistry.class).get("scheduled.lock.runs").tag("name", name).tag("outcome", outcome)
+            .counter().count();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(NodeConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:scheduled-lock;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.datasource.hikari.pool-name=scheduled-lock",
+                "spring.liquibase.change-log=classpath:config/liquibase/master.xml",
+                "spring.jmx.enabled=false")
+            .run();
+    }
+
+    /**
+     * The beans of a node taking part in the scheduled job leases, the schema being created by Liquibase.
+     */
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+    @EnableConfigurationProperties(ApplicationProperties.class)
+    @Import({ScheduledLockRepository.class, ScheduledLockService.class})
+    static class NodeConfiguration {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -1,28 +1,38 @@
 package com.elmorabit.recipes.service;
 
 import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.config.ApplicationProperties;
 import com.elmorabit.recipes.config.Constants;
+import com.elmorabit.recipes.domain.Authority;
 import com.elmorabit.recipes.domain.User;
+import com.elmorabit.recipes.repository.AuthorityRepository;
 import com.elmorabit.recipes.repository.UserRepository;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
 import com.elmorabit.recipes.service.dto.UserDTO;
 
 import io.github.jhipster.security.RandomUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,9 +64,24 @@ public class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Mock
     private DateTimeProvider dateTimeProvider;
 
@@ -187,6 +212,45 @@ public class UserServiceIT {
         assertThat(maybeDbUser).contains(dbUser);
     }
 
+    @Test
+    @Transactional
+    public void assertThatNotActivatedUsersAreDeletedByBatches() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        Authority authority = authorityRepository.findById(AuthoritiesConstants.USER).get();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User notActivated = new User();
+            notActivated.setLogin("not-activated-" + i);
+            notActivated.setPassword(RandomStringUtils.random(60));
+            notActivated.setEmail(i == 0 ? null : "not-activated-" + i + "@localhost");
+            notActivated.setActivated(false);
+            notActivated.setActivationKey(RandomUtil.generateActivationKey());
+            notActivated.setAuthorities(Collections.singleton(authority));
+            ids.add(userRepository.saveAndFlush(notActivated).getId());
+            cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put(notActivated.getLogin(), Optional.of(notActivated));
+        }
+        user.setActivated(false);
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        User recent = userRepository.saveAndFlush(user);
+        jdbcTemplate.update("update jhi_user set created_date = ? where id = ?", Timestamp.from(now), recent.getId());
+        double deletedBefore = meterRegistry.counter("users.not.activated.deleted").count();
+        int batchSize = applicationProperties.getUsers().getPurgeBatchSize();
+        applicationProperties.getUsers().setPurgeBatchSize(2);
+        try {
+            assertThat(userService.removeNotActivatedUsersBefore(now.minus(3, ChronoUnit.DAYS))).isEqualTo(5);
+        } finally {
+            applicationProperties.getUsers().setPurgeBatchSize(batchSize);
+        }
+
+        assertThat(userRepository.findAllById(ids)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from jhi_user_authority where user_id in (?, ?, ?, ?, ?)",
+            Integer.class, ids.toArray())).isZero();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("not-activated-0")).isNull();
+        assertThat(meterRegistry.counter("users.not.activated.deleted").count()).isEqualTo(deletedBefore + 5);
+        assertThat(userRepository.findById(recent.getId())).isPresent();
+    }
+
     @Test
     @Transactional
     public void assertThatAnonymousUserIsNotGet() {
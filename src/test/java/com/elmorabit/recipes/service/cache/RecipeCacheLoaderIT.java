@@ -0,0 +1,127 @@
+package com.elmorabit.recipes.service.cache;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.AuthorRepository;
+import com.elmorabit.recipes.repository.RecipeRepository;
+import com.elmorabit.recipes.service.RecipeService;
+import com.elmorabit.recipes.service.RecipeView;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the {@link RecipeCacheLoader} protection of cold recipe reads, with the entity cache enabled.
+ */
+@SpringBootTest(classes = RecipesApp.class, properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class RecipeCacheLoaderIT {
+
+    private static final int READERS = 16;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private RecipeCacheLoader recipeCacheLoader;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Author author;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    public void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        author = authorRepository.save(new Author().name("author"));
+        recipe = recipeService.save(new Recipe().title("recipe").author(author));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        recipeRepository.deleteById(recipe.getId());
+        authorRepository.delete(author);
+    }
+
+    @Test
+    public void concurrentColdReadsRunASingleQuery() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<Recipe>>> reads = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    return recipeService.findOne(recipe.getId(), RecipeView.WITH_AUTHOR);
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<Recipe>> read : reads) {
+                assertThat(read.get(10, TimeUnit.SECONDS)).hasValueSatisfying(found ->
+                    assertThat(found.getAuthor().getName()).isEqualTo("author"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void hotRecipesAreRefreshedInTheBackground() throws Exception {
+        Object refreshAhead = ReflectionTestUtils.getField(recipeCacheLoader, "refreshAhead");
+        // a window longer than the time to live, so that any read is likely to refresh the recipe
+        ReflectionTestUtils.setField(recipeCacheLoader, "refreshAhead", new RefreshAhead<Long>(Duration.ofDays(100)));
+        try {
+            recipeService.findOne(recipe.getId(), RecipeView.WITH_AUTHOR);
+            statistics.clear();
+
+            for (int i = 0; i < 100 && statistics.getPrepareStatementCount() == 0; i++) {
+                recipeService.findOne(recipe.getId(), RecipeView.WITH_AUTHOR);
+                Thread.sleep(10);
+            }
+            for (int i = 0; i < 500 && !entityManagerFactory.getCache().contains(Recipe.class, recipe.getId()); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            ReflectionTestUtils.setField(recipeCacheLoader, "refreshAhead", refreshAhead);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).as("refresh queries").isGreaterThan(0);
+        assertThat(entityManagerFactory.getCache().contains(Recipe.class, recipe.getId())).isTrue();
+    }
+}
@@ -0,0 +1,153 @@
+package com.elmorabit.recipes.service.cache;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.AuthorRepository;
+import com.elmorabit.recipes.repository.RecipeRepository;
+import com.elmorabit.recipes.service.RecipeService;
+import com.elmorabit.recipes.service.RecipeView;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the {@link RecipePageCache} of the recipe listing, with the entity cache enabled.
+ */
+@SpringBootTest(classes = RecipesApp.class, properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class RecipePageCacheIT {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 2, Sort.by("id"));
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    private Author author;
+
+    private final List<Recipe> recipes = new ArrayList<>();
+
+    @BeforeEach
+    public void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        author = authorRepository.save(new Author().name("author"));
+        for (int i = 0; i < 3; i++) {
+            recipes.add(recipeService.save(new Recipe().title("recipe " + i).author(author)));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        recipeRepository.deleteAll(recipes);
+        authorRepository.delete(author);
+    }
+
+    @Test
+    public void cachedPagesAreServedWithoutQueries() {
+        Page<Recipe> page = recipeService.findAll(FIRST_PAGE, RecipeView.WITH_AUTHOR);
+        statistics.clear();
+
+        Page<Recipe> cached = recipeService.findAll(FIRST_PAGE, RecipeView.WITH_AUTHOR);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(ids(cached)).isEqualTo(ids(page));
+        assertThat(cached.getTotalElements()).isEqualTo(page.getTotalElements());
+        assertThat(cached.getContent().get(0).getAuthor().getName()).isEqualTo("author");
+    }
+
+    @Test
+    public void cachedPagesAreSharedByViews() {
+        recipeService.findAll(FIRST_PAGE, RecipeView.FULL);
+        statistics.clear();
+
+        Page<Recipe> cached = recipeService.findAll(FIRST_PAGE, RecipeView.SUMMARY);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cached.getContent()).hasSize(2);
+    }
+
+    @Test
+    public void cachedPagesFallBackToAQueryWhenTheirAssociationsAreNotCached() {
+        Page<Recipe> page = recipeService.findAll(FIRST_PAGE, RecipeView.SUMMARY);
+        entityManagerFactory.getCache().evict(Author.class);
+        statistics.clear();
+
+        Page<Recipe> cached = recipeService.findAll(FIRST_PAGE, RecipeView.WITH_AUTHOR);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(ids(cached)).isEqualTo(ids(page));
+        assertThat(cached.getContent().get(0).getAuthor().getName()).isEqualTo("author");
+    }
+
+    @Test
+    public void savingARecipeInvalidatesTheCachedPages() {
+        Page<Recipe> page = recipeService.findAll(FIRST_PAGE);
+        recipes.add(recipeService.save(new Recipe().title("new recipe")));
+
+        assertThat(recipeService.findAll(FIRST_PAGE).getTotalElements()).isEqualTo(page.getTotalElements() + 1);
+    }
+
+    @Test
+    public void deletingARecipeInvalidatesTheCachedPages() {
+        Page<Recipe> page = recipeService.findAll(FIRST_PAGE);
+        Recipe first = page.getContent().get(0);
+        recipeService.delete(first.getId());
+        recipes.remove(first);
+
+        Page<Recipe> updated = recipeService.findAll(FIRST_PAGE);
+
+        assertThat(updated.getTotalElements()).isEqualTo(page.getTotalElements() - 1);
+        assertThat(ids(updated)).doesNotContain(first.getId());
+    }
+
+    @Test
+    public void pagesReadWithinAReadWriteTransactionAreNotCached() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            recipeService.save(new Recipe().title("rolled back"));
+            recipeService.findAll(FIRST_PAGE);
+            status.setRollbackOnly();
+            return null;
+        });
+        long total = recipeRepository.count();
+
+        assertThat(recipeService.findAll(FIRST_PAGE).getTotalElements()).isEqualTo(total);
+    }
+
+    private static List<Long> ids(Page<Recipe> page) {
+        return page.getContent().stream().map(Recipe::getId).collect(Collectors.toList());
+    }
+}
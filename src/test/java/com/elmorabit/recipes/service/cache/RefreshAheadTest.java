@@ -0,0 +1,90 @@
+package com.elmorabit.recipes.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link RefreshAhead} decisions.
+ */
+public class RefreshAheadTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(60);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private double random = 0.5;
+
+    private final RefreshAhead<Long> refreshAhead = new RefreshAhead<>(Duration.ofMinutes(1), now::get, () -> random);
+
+    @Test
+    public void keysAreNotRefreshedBeforeTheirLastWindow() {
+        refreshAhead.loaded(1L, TIME_TO_LIVE);
+        advance(Duration.ofMinutes(50));
+
+        assertThat(refreshAhead.shouldRefresh(1L)).isFalse();
+    }
+
+    @Test
+    public void keysAreRefreshedEarlierByLuckierReads() {
+        refreshAhead.loaded(1L, TIME_TO_LIVE);
+        advance(Duration.ofMinutes(59));
+
+        // -ln(0.5) is below one window, -ln(0.1) above
+        assertThat(refreshAhead.shouldRefresh(1L)).isFalse();
+        random = 0.1;
+        assertThat(refreshAhead.shouldRefresh(1L)).isTrue();
+    }
+
+    @Test
+    public void keysAreRefreshedOncePerLoad() {
+        refreshAhead.loaded(1L, TIME_TO_LIVE);
+        advance(Duration.ofSeconds(3599));
+
+        assertThat(refreshAhead.shouldRefresh(1L)).isTrue();
+        assertThat(refreshAhead.shouldRefresh(1L)).isFalse();
+
+        refreshAhead.loaded(1L, TIME_TO_LIVE);
+        advance(Duration.ofSeconds(3599));
+        assertThat(refreshAhead.shouldRefresh(1L)).isTrue();
+    }
+
+    @Test
+    public void unknownAndExpiredKeysAreNotRefreshed() {
+        refreshAhead.loaded(1L, TIME_TO_LIVE);
+        advance(TIME_TO_LIVE);
+
+        assertThat(refreshAhead.shouldRefresh(1L)).isFalse();
+        assertThat(refreshAhead.shouldRefresh(2L)).isFalse();
+    }
+
+    @Test
+    public void expiredKeysMakeRoomForNewOnes() {
+        for (long key = 0; key < RefreshAhead.MAX_KEYS; key++) {
+            refreshAhead.loaded(key, Duration.ofMinutes(1));
+        }
+        refreshAhead.loaded(-1L, TIME_TO_LIVE);
+        advance(Duration.ofMinutes(2));
+        refreshAhead.loaded(-2L, TIME_TO_LIVE);
+        advance(Duration.ofSeconds(3599));
+
+        assertThat(refreshAhead.shouldRefresh(-1L)).as("not tracked while full").isFalse();
+        assertThat(refreshAhead.shouldRefresh(-2L)).isTrue();
+    }
+
+    @Test
+    public void aZeroWindowDisablesRefreshes() {
+        RefreshAhead<Long> disabled = new RefreshAhead<>(Duration.ZERO, now::get, () -> 0.0);
+        disabled.loaded(1L, TIME_TO_LIVE);
+        advance(Duration.ofSeconds(3599));
+
+        assertThat(disabled.shouldRefresh(1L)).isFalse();
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,130 @@
+package com.elmorabit.recipes.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link SingleFlight} coalescing of loads.
+ */
+public class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final SingleFlight<Long> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+    }
+
+    @AfterEach
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentLoadsOfAKeyWaitForTheFirstOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean loaded = new AtomicBoolean();
+        Future<Boolean> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+            started.countDown();
+            await(release);
+            loaded.set(true);
+            return true;
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<Boolean>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1L, loaded::get)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isTrue();
+        for (Future<Boolean> follower : followers) {
+            assertThat(follower.get(10, TimeUnit.SECONDS)).as("follower saw the first load").isTrue();
+        }
+    }
+
+    @Test
+    public void loadsOfOtherKeysDoNotWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute(1L, () -> await(release)));
+
+        Future<String> other = executor.submit(() -> singleFlight.execute(2L, () -> "other"));
+
+        assertThat(other.get(10, TimeUnit.SECONDS)).isEqualTo("other");
+        release.countDown();
+    }
+
+    @Test
+    public void waitingLoadsGiveUpAfterTheTimeout() throws Exception {
+        SingleFlight<Long> impatient = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> impatient.execute(1L, () -> {
+            started.countDown();
+            return await(release);
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<String> follower = executor.submit(() -> impatient.execute(1L, () -> "follower"));
+
+        assertThat(follower.get(10, TimeUnit.SECONDS)).isEqualTo("follower");
+        release.countDown();
+    }
+
+    @Test
+    public void failedLoadsReleaseTheKey() {
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute(1L, () -> "loaded")).isEqualTo("loaded");
+    }
+
+    @Test
+    public void tryExecuteSkipsKeysBeingLoaded() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute(1L, () -> {
+            started.countDown();
+            return await(release);
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(singleFlight.tryExecute(1L, runs::incrementAndGet)).isFalse();
+        assertThat(singleFlight.tryExecute(2L, runs::incrementAndGet)).isTrue();
+        assertThat(runs).hasValue(1);
+        release.countDown();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link CsvRecipeRecordReader}.
+ */
+public class CsvRecipeRecordReaderTest {
+
+    @Test
+    public void readShouldMapColumnsByHeaderName() throws IOException {
+        CsvRecipeRecordReader reader = new CsvRecipeRecordReader(new StringReader(
+            "Ingredients,Unused,Title,Author,Author_Website\n" +
+            "Eggs:2;Flour:200:g,x,Pancakes,Jane,https://example.com\n"));
+
+        Recipe recipe = reader.read();
+
+        assertThat(recipe.getTitle()).isEqualTo("Pancakes");
+        assertThat(recipe.getDescription()).isNull();
+        assertThat(recipe.getAuthor().getName()).isEqualTo("Jane");
+        assertThat(recipe.getAuthor().getWebsite()).isEqualTo("https://example.com");
+        assertThat(recipe.getIngredients()).extracting(Ingredient::getName, Ingredient::getQuantity, Ingredient::getUnit)
+            .containsExactlyInAnyOrder(
+                tuple("Eggs", 2, null),
+                tuple("Flour", 200, "g"));
+        assertThat(reader.read()).isNull();
+    }
+
+    @Test
+    public void readShouldHandleQuotedFieldsAndBlankLines() throws IOException {
+        CsvRecipeRecordReader reader = new CsvRecipeRecordReader(new StringReader(
+            "title,description\r\n" +
+            "\r\n" +
+            "\"Soup, \"\"hot\"\"\",\"Two\r\nlines\"\r\n" +
+            "Salad,"));
+
+        Recipe soup = reader.read();
+        Recipe salad = reader.read();
+
+        assertThat(soup.getTitle()).isEqualTo("Soup, \"hot\"");
+        assertThat(soup.getDescription()).isEqualTo("Two\r\nlines");
+        assertThat(salad.getTitle()).isEqualTo("Salad");
+        assertThat(salad.getDescription()).isNull();
+        assertThat(reader.read()).isNull();
+    }
+
+    @Test
+    public void readShouldRejectInvalidRecordsAndGoOn() throws IOException {
+        CsvRecipeRecordReader reader = new CsvRecipeRecordReader(new StringReader(
+            "title,ingredients\n" +
+            "Bread,Flour:a lot\n" +
+            "Cake,Sugar:100:g\n"));
+
+        assertThatThrownBy(reader::read).isInstanceOf(InvalidRecipeRecordException.class);
+        assertThat(reader.read().getTitle()).isEqualTo("Cake");
+    }
+
+    @Test
+    public void constructorShouldRequireTitleColumn() {
+        assertThatThrownBy(() -> new CsvRecipeRecordReader(new StringReader("name,description\n")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,175 @@
+package com.elmorabit.recipes.service.importer;
+
+import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.service.RecipeService;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link RecipeImportService}, outside of a test transaction so that each batch really commits.
+ */
+@SpringBootTest(classes = RecipesApp.class)
+public class RecipeImportServiceIT {
+
+    private static final String TITLE_PREFIX = "Import IT ";
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int batchSize;
+
+    @BeforeEach
+    public void setBatchSize() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        batchSize = applicationProperties.getBulkImport().getBatchSize();
+        applicationProperties.getBulkImport().setBatchSize(2);
+    }
+
+    @AfterEach
+    public void deleteImportedRecipes() {
+        applicationProperties.getBulkImport().setBatchSize(batchSize);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Recipe> recipes = em.createQuery("select distinct r from Recipe r left join fetch r.ingredients " +
+                "where r.title like :prefix", Recipe.class)
+                .setParameter("prefix", TITLE_PREFIX + "%")
+                .getResultList();
+            for (Recipe recipe : recipes) {
+                recipe.getIngredients().forEach(em::remove);
+                em.remove(recipe);
+            }
+            em.createQuery("select a from Author a where a.name like :prefix", Author.class)
+                .setParameter("prefix", TITLE_PREFIX + "%")
+                .getResultList()
+                .forEach(em::remove);
+        });
+    }
+
+    @Test
+    public void importExportedRecipesCommittingEachBatch() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            Author author = new Author().name(TITLE_PREFIX + "author");
+            em.persist(author);
+            for (int i = 1; i <= 3; i++) {
+                Recipe recipe = new Recipe().title(TITLE_PREFIX + i).author(author);
+                em.persist(recipe);
+                for (String name : Arrays.asList("Flour", "Eggs")) {
+                    Ingredient ingredient = new Ingredient().name(name).quantity(i).unit("g");
+                    recipe.addIngredients(ingredient);
+                    em.persist(ingredient);
+                }
+            }
+        });
+        StringBuilder export = new StringBuilder();
+        recipeService.exportAll(recipe -> {
+            if (recipe.getTitle() != null && recipe.getTitle().startsWith(TITLE_PREFIX)) {
+                try {
+                    export.append(objectMapper.writeValueAsString(recipe)).append('\n');
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        assertThat(export.toString()).contains("\"version\":0");
+
+        List<Integer> committedRecipes = new ArrayList<>();
+        RecipeImportProgress result = recipeImportService.importRecipes(
+            new NdjsonRecipeRecordReader(new BufferedReader(new StringReader(export.toString())), objectMapper.reader()), 0,
+            progress -> committedRecipes.add(countRecipes()));
+
+        assertThat(result.getStatus()).isEqualTo(RecipeImportProgress.Status.COMPLETED);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(committedRecipes).containsExactly(5, 6);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from ingredient i join recipe r on i.recipe_id = r.id " +
+            "where r.title like ?", Integer.class, TITLE_PREFIX + "%")).isEqualTo(12);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from author where name like ?", Integer.class,
+            TITLE_PREFIX + "%")).isEqualTo(1);
+    }
+
+    @Test
+    public void resumeFailedImportAfterTheLastCommittedBatch() throws Exception {
+        // A recipe of a class that Hibernate does not know fails the batch it is saved with
+        Recipe unknownEntity = new Recipe() { };
+        unknownEntity.setTitle(TITLE_PREFIX + "3");
+        RecipeImportProgress failed = recipeImportService.importRecipes(
+            reader(recipe(1), recipe(2), unknownEntity, recipe(4)), 0, progress -> { });
+
+        assertThat(failed.getStatus()).isEqualTo(RecipeImportProgress.Status.FAILED);
+        assertThat(failed.getPosition()).isEqualTo(2);
+        assertThat(countRecipes()).isEqualTo(2);
+
+        RecipeImportProgress resumed = recipeImportService.importRecipes(
+            reader(recipe(1), recipe(2), recipe(3), recipe(4)), failed.getPosition(), progress -> { });
+
+        assertThat(resumed.getStatus()).isEqualTo(RecipeImportProgress.Status.COMPLETED);
+        assertThat(resumed.getImported()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("select title from recipe where title like ? order by title", String.class,
+            TITLE_PREFIX + "%")).containsExactly(TITLE_PREFIX + "1", TITLE_PREFIX + "2", TITLE_PREFIX + "3", TITLE_PREFIX + "4");
+    }
+
+    private int countRecipes() {
+        return jdbcTemplate.queryForObject("select count(*) from recipe where title like ?", Integer.class, TITLE_PREFIX + "%");
+    }
+
+    private static Recipe recipe(int number) {
+        return new Recipe().title(TITLE_PREFIX + number).author(new Author().name(TITLE_PREFIX + "author"));
+    }
+
+    private static RecipeRecordReader reader(Recipe... recipes) {
+        Iterator<Recipe> iterator = Arrays.asList(recipes).iterator();
+        return new RecipeRecordReader() {
+
+            @Override
+            public Recipe read() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
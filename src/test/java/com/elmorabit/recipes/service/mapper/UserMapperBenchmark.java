@@ -0,0 +1,75 @@
+package com.elmorabit.recipes.service.mapper;
+
+import com.elmorabit.recipes.domain.Authority;
+import com.elmorabit.recipes.domain.User;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
+import com.elmorabit.recipes.service.dto.UserDTO;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link UserMapper#usersToUserDTOs(List)}, mapping a page of users of the user management API.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"20", "1000"})
+    private int userCount;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private List<User> users;
+
+    @Setup
+    public void createUsers() {
+        Authority user = new Authority();
+        user.setName(AuthoritiesConstants.USER);
+        Authority admin = new Authority();
+        admin.setName(AuthoritiesConstants.ADMIN);
+        users = new ArrayList<>(userCount);
+        for (long i = 0; i < userCount; i++) {
+            User entity = new User();
+            entity.setId(i);
+            entity.setLogin("user" + i);
+            entity.setFirstName("First" + i);
+            entity.setLastName("Last" + i);
+            entity.setEmail("user" + i + "@localhost");
+            entity.setActivated(true);
+            entity.setLangKey("en");
+            entity.setCreatedBy("system");
+            entity.setCreatedDate(Instant.now());
+            Set<Authority> authorities = new HashSet<>();
+            authorities.add(user);
+            if (i % 10 == 0) {
+                authorities.add(admin);
+            }
+            entity.setAuthorities(authorities);
+            users.add(entity);
+        }
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
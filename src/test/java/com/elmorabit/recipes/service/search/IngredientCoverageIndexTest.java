@@ -0,0 +1,112 @@
+package com.elmorabit.recipes.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link IngredientCoverageIndex}.
+ */
+public class IngredientCoverageIndexTest {
+
+    private IngredientCoverageIndex ingredientCoverageIndex;
+
+    @BeforeEach
+    public void init() {
+        ingredientCoverageIndex = new IngredientCoverageIndex();
+        // Omelette: eggs, butter, salt
+        ingredientCoverageIndex.index(1L, 100L, "Eggs");
+        ingredientCoverageIndex.index(2L, 100L, "Butter");
+        ingredientCoverageIndex.index(3L, 100L, "Salt");
+        // Pancakes: flour, egg, milk, butter
+        ingredientCoverageIndex.index(4L, 200L, "Flour");
+        ingredientCoverageIndex.index(5L, 200L, "egg");
+        ingredientCoverageIndex.index(6L, 200L, "Milk");
+        ingredientCoverageIndex.index(7L, 200L, "butter");
+        // Toast: bread, butter
+        ingredientCoverageIndex.index(8L, 300L, "Bread");
+        ingredientCoverageIndex.index(9L, 300L, "Butter");
+    }
+
+    @Test
+    public void findByIngredientsShouldRankByCoveredThenMissingIngredients() {
+        Page<Long> page = ingredientCoverageIndex.findByIngredients(Arrays.asList("egg", "BUTTER", "milk"), Pageable.unpaged());
+
+        // pancakes cover 3, omelette covers 2 with 1 missing, toast covers 1 with 1 missing
+        assertThat(page.getContent()).containsExactly(200L, 100L, 300L);
+    }
+
+    @Test
+    public void findByIngredientsShouldPaginateResults() {
+        Page<Long> page = ingredientCoverageIndex.findByIngredients(Collections.singletonList("butter"), PageRequest.of(1, 2));
+
+        // toast misses 1 ingredient, omelette 2 and pancakes 3
+        assertThat(page.getContent()).containsExactly(200L);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void findByIngredientsShouldIgnoreUnknownIngredients() {
+        assertThat(ingredientCoverageIndex.findByIngredients(Arrays.asList("caviar", ""), Pageable.unpaged()).getContent()).isEmpty();
+    }
+
+    @Test
+    public void duplicateIngredientNamesShouldCountOnce() {
+        ingredientCoverageIndex.index(10L, 300L, "bread");
+        ingredientCoverageIndex.remove(8L);
+
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("bread"), Pageable.unpaged()).getContent())
+            .containsExactly(300L);
+    }
+
+    @Test
+    public void reindexingShouldMoveIngredientBetweenRecipes() {
+        ingredientCoverageIndex.index(6L, 300L, "Milk");
+        ingredientCoverageIndex.remove(3L);
+
+        assertThat(ingredientCoverageIndex.findByIngredients(Arrays.asList("milk", "bread"), Pageable.unpaged()).getContent())
+            .containsExactly(300L);
+        assertThat(ingredientCoverageIndex.findByIngredients(Arrays.asList("eggs", "butter"), Pageable.unpaged()).getContent())
+            .containsExactly(100L, 200L, 300L);
+    }
+
+    @Test
+    public void removingTheLastIngredientOfARecipeShouldReleaseItsOrdinal() {
+        ingredientCoverageIndex.remove(8L);
+        ingredientCoverageIndex.remove(9L);
+
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("butter"), Pageable.unpaged()).getContent())
+            .containsExactly(100L, 200L);
+
+        ingredientCoverageIndex.index(8L, 300L, "Butter");
+
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("butter"), Pageable.unpaged()).getContent())
+            .containsExactly(300L, 100L, 200L);
+    }
+
+    @Test
+    public void deletedRecipesShouldNotGrowTheIndex() {
+        ingredientCoverageIndex.index(20L, 500L, "Caviar");
+        for (long recipeId = 1000L; recipeId < 2000L; recipeId++) {
+            ingredientCoverageIndex.index(recipeId, recipeId, "Butter");
+            ingredientCoverageIndex.remove(recipeId);
+        }
+        ingredientCoverageIndex.index(21L, 400L, "Caviar");
+
+        assertThat(ingredientCoverageIndex.ordinalCount()).isLessThan(200);
+        // the recipes left keep the order in which they were indexed, the last tie breaker
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("caviar"), Pageable.unpaged()).getContent())
+            .containsExactly(500L, 400L);
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("butter"), Pageable.unpaged()).getContent())
+            .containsExactly(300L, 100L, 200L);
+        assertThat(ingredientCoverageIndex.findByIngredients(Arrays.asList("egg", "BUTTER", "milk"), Pageable.unpaged()).getContent())
+            .containsExactly(200L, 100L, 300L);
+    }
+}
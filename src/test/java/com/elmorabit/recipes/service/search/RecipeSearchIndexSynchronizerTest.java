@@ -0,0 +1,110 @@
+package com.elmorabit.recipes.service.search;
+
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.IngredientRepository;
+import com.elmorabit.recipes.repository.RecipeRepository;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RecipeSearchIndexSynchronizer}.
+ */
+public class RecipeSearchIndexSynchronizerTest {
+
+    private RecipeSearchIndex recipeSearchIndex;
+
+    private IngredientCoverageIndex ingredientCoverageIndex;
+
+    private RecipeRepository recipeRepository;
+
+    private IngredientRepository ingredientRepository;
+
+    private RecipeSearchIndexSynchronizer synchronizer;
+
+    @BeforeEach
+    public void init() {
+        recipeSearchIndex = new RecipeSearchIndex();
+        ingredientCoverageIndex = new IngredientCoverageIndex();
+        recipeRepository = mock(RecipeRepository.class);
+        ingredientRepository = mock(IngredientRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().setRebuildBatchSize(1);
+        synchronizer = new RecipeSearchIndexSynchronizer(recipeSearchIndex, ingredientCoverageIndex, recipeRepository,
+            ingredientRepository, mock(EntityManagerFactory.class), applicationProperties);
+    }
+
+    @Test
+    public void rebuildShouldKeepTheUpdatesCommittedMeanwhile() {
+        when(recipeRepository.findSearchableFieldsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenAnswer(invocation -> {
+            // Recipe 1 is renamed, and recipe 2 deleted, after the rebuild read them
+            synchronizer.onPostUpdate(new PostUpdateEvent(recipe(1L, "Pasta"), 1L, null, null, null, null, null));
+            synchronizer.onPostDelete(new PostDeleteEvent(recipe(2L, "Chocolate cake"), 2L, null, null, null));
+            return Collections.singletonList(new Object[] {1L, "Tomato soup", null});
+        });
+        when(recipeRepository.findSearchableFieldsAfter(eq(1L), any(Pageable.class)))
+            .thenReturn(Collections.singletonList(new Object[] {2L, "Chocolate cake", null}));
+
+        synchronizer.rebuild();
+
+        assertThat(recipeSearchIndex.search("pasta", Pageable.unpaged()).getContent()).containsExactly(1L);
+        assertThat(recipeSearchIndex.search("tomato", Pageable.unpaged()).getContent()).isEmpty();
+        assertThat(recipeSearchIndex.search("chocolate", Pageable.unpaged()).getContent()).isEmpty();
+        assertThat(recipeSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void rebuildShouldKeepTheIngredientUpdatesCommittedMeanwhile() {
+        when(recipeRepository.findSearchableFieldsAfter(eq(Long.MIN_VALUE), any(Pageable.class)))
+            .thenReturn(Collections.singletonList(new Object[] {1L, "Omelette", null}));
+        when(ingredientRepository.findSearchableFieldsByRecipeIds(Collections.singletonList(1L))).thenAnswer(invocation -> {
+            // Ingredient 10 is renamed, and ingredient 11 deleted, after the rebuild read them
+            synchronizer.onPostUpdate(new PostUpdateEvent(ingredient(10L, 1L, "Cheese"), 10L, null, null, null, null, null));
+            synchronizer.onPostDelete(new PostDeleteEvent(ingredient(11L, 1L, "Butter"), 11L, null, null, null));
+            return Arrays.asList(new Object[] {10L, 1L, "Eggs"}, new Object[] {11L, 1L, "Butter"});
+        });
+
+        synchronizer.rebuild();
+
+        assertThat(ingredientCoverageIndex.findByIngredients(Collections.singletonList("cheese"), Pageable.unpaged()).getContent())
+            .containsExactly(1L);
+        assertThat(ingredientCoverageIndex.findByIngredients(Arrays.asList("eggs", "butter"), Pageable.unpaged()).getContent())
+            .isEmpty();
+        assertThat(recipeSearchIndex.search("cheese", Pageable.unpaged()).getContent()).containsExactly(1L);
+        assertThat(recipeSearchIndex.search("butter", Pageable.unpaged()).getContent()).isEmpty();
+    }
+
+    @Test
+    public void updatesShouldBeAppliedRightAwayOutsideOfARebuild() {
+        synchronizer.onPostUpdate(new PostUpdateEvent(recipe(1L, "Pasta"), 1L, null, null, null, null, null));
+
+        assertThat(recipeSearchIndex.search("pasta", Pageable.unpaged()).getContent()).containsExactly(1L);
+    }
+
+    private static Recipe recipe(Long id, String title) {
+        Recipe recipe = new Recipe().title(title);
+        recipe.setId(id);
+        return recipe;
+    }
+
+    private static Ingredient ingredient(Long id, Long recipeId, String name) {
+        Ingredient ingredient = new Ingredient().name(name).recipe(recipe(recipeId, null));
+        ingredient.setId(id);
+        return ingredient;
+    }
+}
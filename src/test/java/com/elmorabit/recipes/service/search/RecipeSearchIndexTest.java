@@ -0,0 +1,81 @@
+package com.elmorabit.recipes.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RecipeSearchIndex}.
+ */
+public class RecipeSearchIndexTest {
+
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @BeforeEach
+    public void init() {
+        recipeSearchIndex = new RecipeSearchIndex();
+        recipeSearchIndex.indexRecipe(1L, "Tomato soup", "A warm soup for winter");
+        recipeSearchIndex.indexRecipe(2L, "Pasta", "Pasta with a fresh basil sauce");
+        recipeSearchIndex.indexRecipe(3L, "Chocolate cake", "Baked in a round tin");
+        recipeSearchIndex.indexIngredient(10L, 3L, "Dark chocolate");
+        recipeSearchIndex.indexIngredient(11L, 2L, "Tomatoes");
+    }
+
+    @Test
+    public void searchShouldRankTitleMatchesFirst() {
+        Page<Long> page = recipeSearchIndex.search("tomato", Pageable.unpaged());
+
+        assertThat(page.getContent()).containsExactly(1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchShouldMatchStemmedIngredientNames() {
+        assertThat(recipeSearchIndex.search("chocolates", Pageable.unpaged()).getContent()).containsExactly(3L);
+        assertThat(recipeSearchIndex.search("bake", Pageable.unpaged()).getContent()).containsExactly(3L);
+    }
+
+    @Test
+    public void searchShouldPaginateResults() {
+        Page<Long> page = recipeSearchIndex.search("tomato soup pasta cake", PageRequest.of(1, 2));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchShouldIgnoreStopWordsOnlyQuery() {
+        assertThat(recipeSearchIndex.search("the and of", Pageable.unpaged()).getContent()).isEmpty();
+        assertThat(recipeSearchIndex.search(null, Pageable.unpaged()).getContent()).isEmpty();
+    }
+
+    @Test
+    public void updatingRecipeShouldKeepItsIngredients() {
+        recipeSearchIndex.indexRecipe(3L, "Brownies", "Fudgy squares");
+
+        assertThat(recipeSearchIndex.search("cake", Pageable.unpaged()).getContent()).isEmpty();
+        assertThat(recipeSearchIndex.search("brownies chocolate", Pageable.unpaged()).getContent()).containsExactly(3L);
+    }
+
+    @Test
+    public void movingIngredientShouldReindexBothRecipes() {
+        recipeSearchIndex.indexIngredient(10L, 1L, "Dark chocolate");
+
+        assertThat(recipeSearchIndex.search("dark", Pageable.unpaged()).getContent()).containsExactly(1L);
+    }
+
+    @Test
+    public void removingShouldDropDocumentsAndIngredients() {
+        recipeSearchIndex.removeIngredient(11L);
+        recipeSearchIndex.removeRecipe(1L);
+
+        assertThat(recipeSearchIndex.search("tomato soup", Pageable.unpaged()).getContent()).isEmpty();
+        assertThat(recipeSearchIndex.search("pasta", Pageable.unpaged()).getContent()).containsExactly(2L);
+        assertThat(recipeSearchIndex.size()).isEqualTo(2);
+    }
+}
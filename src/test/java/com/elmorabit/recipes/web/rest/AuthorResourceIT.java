@@ -3,6 +3,7 @@ package com.elmorabit.recipes.web.rest;
 import com.elmorabit.recipes.RecipesApp;
 import com.elmorabit.recipes.domain.Author;
 import com.elmorabit.recipes.repository.AuthorRepository;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
 import com.elmorabit.recipes.service.AuthorService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +20,7 @@ import javax.persistence.EntityManager;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -133,6 +136,41 @@ public class AuthorResourceIT {
             .andExpect(jsonPath("$.[*].website").value(hasItem(DEFAULT_WEBSITE)));
     }
     
+    @Test
+    @Transactional
+    public void getAllAuthorsByNamePrefix() throws Exception {
+        // Initialize the database
+        Author first = authorRepository.save(createEntity(em).name("100% Chef A"));
+        Author second = authorRepository.save(createEntity(em).name("100% Chef B"));
+        authorRepository.save(createEntity(em).name("1000 Chefs"));
+        em.flush();
+
+        restAuthorMockMvc.perform(get("/api/authors?name=100%&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + first.getId())));
+
+        restAuthorMockMvc.perform(get("/api/authors?name=100%&size=1&after={after}", first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportAuthors() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        restAuthorMockMvc.perform(get("/api/authors/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":" + author.getId() + ",")));
+    }
+
     @Test
     @Transactional
     public void getAuthor() throws Exception {
@@ -147,6 +185,45 @@ public class AuthorResourceIT {
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
             .andExpect(jsonPath("$.website").value(DEFAULT_WEBSITE));
     }
+    @Test
+    @Transactional
+    public void getAuthorWithMatchingEntityTag() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String lastModified = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void updateAuthorWithMatchingEntityTag() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String eTag = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Author updatedAuthor = new Author().name(UPDATED_NAME).website(UPDATED_WEBSITE);
+        updatedAuthor.setId(author.getId());
+        restAuthorMockMvc.perform(put("/api/authors")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedAuthor)))
+            .andExpect(status().isOk());
+        em.flush();
+
+        // The author was changed since the entity tag was read
+        restAuthorMockMvc.perform(put("/api/authors")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedAuthor)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     public void getNonExistingAuthor() throws Exception {
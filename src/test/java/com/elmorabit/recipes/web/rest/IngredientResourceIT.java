@@ -1,24 +1,34 @@
 package com.elmorabit.recipes.web.rest;
 
 import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Author;
 import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
 import com.elmorabit.recipes.repository.IngredientRepository;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
 import com.elmorabit.recipes.service.IngredientService;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,6 +55,9 @@ public class IngredientResourceIT {
     @Autowired
     private IngredientService ingredientService;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private EntityManager em;
 
@@ -140,6 +153,115 @@ public class IngredientResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
     
+    @Test
+    @Transactional
+    public void getAllIngredientsWithFilters() throws Exception {
+        // Initialize the database
+        Recipe recipe = RecipeResourceIT.createEntity(em);
+        em.persist(recipe);
+        Ingredient flour = createEntity(em).name("Flour_type 55").unit("g").recipe(recipe);
+        Ingredient flourOther = createEntity(em).name("Flour_type 45").unit("kg").recipe(recipe);
+        Ingredient floury = createEntity(em).name("Flourytype").unit("g").recipe(recipe);
+        Ingredient elsewhere = createEntity(em).name("Flour_type 65").unit("g");
+        for (Ingredient other : new Ingredient[] {flour, flourOther, floury, elsewhere}) {
+            em.persist(other);
+        }
+        em.flush();
+
+        restIngredientMockMvc.perform(get("/api/ingredients?name=Flour_&unit=g&recipeId={recipeId}", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(flour.getId().intValue()))
+            .andExpect(jsonPath("$.[0].recipe.id").value(recipe.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getIngredientsWithTheAuthorOfTheirRecipe() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        Recipe recipe = RecipeResourceIT.createEntity(em).author(author);
+        em.persist(recipe);
+        ingredientRepository.saveAndFlush(ingredient.recipe(recipe));
+        // Read the lazy author of the recipe from the database rather than from the persistence context
+        em.clear();
+
+        restIngredientMockMvc.perform(get("/api/ingredients?recipeId={recipeId}", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].recipe.author.id").value(author.getId().intValue()));
+        restIngredientMockMvc.perform(get("/api/ingredients/{id}", ingredient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.recipe.author.id").value(author.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIngredientsFollowingNextLinks() throws Exception {
+        // Initialize the database
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(ingredientRepository.save(createEntity(em).name("Paged " + i)).getId());
+        }
+        em.flush();
+
+        List<Long> readIds = new ArrayList<>();
+        String url = "/api/ingredients?name=Paged&size=2";
+        while (url != null) {
+            MvcResult result = restIngredientMockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(lessThanOrEqualTo(2)))
+                .andReturn();
+            List<Number> page = JsonPath.read(result.getResponse().getContentAsString(), "$.[*].id");
+            page.forEach(id -> readIds.add(id.longValue()));
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            url = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+        assertThat(readIds).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @Transactional
+    public void getAllIngredientsCapsPageSize() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            ingredientRepository.save(createEntity(em).name("Capped " + i));
+        }
+        em.flush();
+        int maxPageSize = applicationProperties.getListing().getMaxPageSize();
+        applicationProperties.getListing().setMaxPageSize(2);
+
+        try {
+            restIngredientMockMvc.perform(get("/api/ingredients?name=Capped&size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("size=2")));
+        } finally {
+            applicationProperties.getListing().setMaxPageSize(maxPageSize);
+        }
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportIngredients() throws Exception {
+        // Initialize the database
+        ingredientRepository.saveAndFlush(ingredient);
+
+        restIngredientMockMvc.perform(get("/api/ingredients/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":" + ingredient.getId() + ",")));
+    }
+
+    @Test
+    @Transactional
+    public void exportIngredientsIsForbiddenForUsers() throws Exception {
+        restIngredientMockMvc.perform(get("/api/ingredients/export"))
+            .andExpect(status().isForbidden());
+    }
+
     @Test
     @Transactional
     public void getIngredient() throws Exception {
@@ -155,6 +277,44 @@ public class IngredientResourceIT {
             .andExpect(jsonPath("$.unit").value(DEFAULT_UNIT))
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
     }
+    @Test
+    @Transactional
+    public void getIngredientWithMatchingEntityTag() throws Exception {
+        // Initialize the database
+        Recipe recipe = RecipeResourceIT.createEntity(em);
+        em.persist(recipe);
+        ingredientRepository.saveAndFlush(ingredient.recipe(recipe));
+
+        String eTag = restIngredientMockMvc.perform(get("/api/ingredients/{id}", ingredient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        restIngredientMockMvc.perform(get("/api/ingredients/{id}", ingredient.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // The entity tag changes with the recipe of the ingredient
+        recipe.setTitle("Updated");
+        em.flush();
+        restIngredientMockMvc.perform(get("/api/ingredients/{id}", ingredient.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void updateIngredientWithStaleEntityTag() throws Exception {
+        // Initialize the database
+        ingredientRepository.saveAndFlush(ingredient);
+
+        Ingredient updatedIngredient = createUpdatedEntity(em);
+        updatedIngredient.setId(ingredient.getId());
+        restIngredientMockMvc.perform(put("/api/ingredients")
+            .header(HttpHeaders.IF_MATCH, "\"stale\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedIngredient)))
+            .andExpect(status().isPreconditionFailed());
+        assertThat(ingredientRepository.findById(ingredient.getId()).get().getName()).isEqualTo(DEFAULT_NAME);
+    }
+
     @Test
     @Transactional
     public void getNonExistingIngredient() throws Exception {
@@ -0,0 +1,85 @@
+package com.elmorabit.recipes.web.rest;
+
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
+import com.elmorabit.recipes.domain.Recipe;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the JSON serialization of a page of recipes with their author and ingredients, as returned by
+ * {@code GET /api/recipes?view=full}, with the Jackson modules of the application.
+ * Run it with the {@link #main(String[])} method, from the test classpath, or with the {@code benchmarks} Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipePageSerializationBenchmark {
+
+    @Param("20")
+    private int pageSize;
+
+    @Param({"5", "20"})
+    private int ingredientCount;
+
+    private ObjectMapper objectMapper;
+
+    private Page<Recipe> page;
+
+    @Setup
+    public void createPage() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(new JavaTimeModule(), new Jdk8Module(), new Hibernate5Module())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        List<Recipe> recipes = new ArrayList<>(pageSize);
+        long ingredientId = 0;
+        for (long i = 0; i < pageSize; i++) {
+            Author author = new Author().name("Author " + i).website("https://example.com/authors/" + i);
+            author.setId(i);
+            Recipe recipe = new Recipe()
+                .title("Recipe " + i)
+                .image("https://example.com/recipes/" + i + ".jpg")
+                .description("A recipe to benchmark the serialization of the recipe pages, number " + i)
+                .author(author);
+            recipe.setId(i);
+            recipe.setVersion(0);
+            for (int j = 0; j < ingredientCount; j++) {
+                Ingredient ingredient = new Ingredient().name("Ingredient " + j).quantity(j * 10).unit("g");
+                ingredient.setId(ingredientId++);
+                recipe.addIngredients(ingredient);
+            }
+            recipes.add(recipe);
+        }
+        page = new PageImpl<>(recipes, PageRequest.of(0, pageSize), 1000);
+    }
+
+    @Benchmark
+    public byte[] writeRecipePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page.getContent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RecipePageSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,24 +1,43 @@
 package com.elmorabit.recipes.web.rest;
 
 import com.elmorabit.recipes.RecipesApp;
+import com.elmorabit.recipes.config.ApplicationProperties;
+import com.elmorabit.recipes.domain.Author;
+import com.elmorabit.recipes.domain.Ingredient;
 import com.elmorabit.recipes.domain.Recipe;
+import com.elmorabit.recipes.repository.AuthorRepository;
+import com.elmorabit.recipes.repository.IngredientRepository;
 import com.elmorabit.recipes.repository.RecipeRepository;
+import com.elmorabit.recipes.security.AuthoritiesConstants;
+import com.elmorabit.recipes.service.IngredientService;
 import com.elmorabit.recipes.service.RecipeService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,9 +64,27 @@ public class RecipeResourceIT {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private IngredientService ingredientService;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
     @Autowired
     private MockMvc restRecipeMockMvc;
 
@@ -140,6 +177,416 @@ public class RecipeResourceIT {
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)));
     }
     
+    @Test
+    @Transactional
+    public void getAllRecipesWithFullViewUsesConstantStatementCount() throws Exception {
+        // Initialize the database with recipes having an author and ingredients
+        for (int i = 0; i < 5; i++) {
+            Author author = AuthorResourceIT.createEntity(em);
+            em.persist(author);
+            Recipe other = createEntity(em).author(author);
+            em.persist(other);
+            for (int j = 0; j < 3; j++) {
+                em.persist(IngredientResourceIT.createEntity(em).recipe(other));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = startStatistics();
+        restRecipeMockMvc.perform(get("/api/recipes?view=full&sort=id,desc&size=5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(5))
+            .andExpect(jsonPath("$.[0].author.id").isNumber())
+            .andExpect(jsonPath("$.[0].ingredients.length()").value(3));
+
+        // a page of ids, a count of the recipes, then the recipes of the page with their author and ingredients
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    public void saveRecipeWithIngredientsBatchesInserts() {
+        // Allocate a first id of each entity, so that the measured inserts are served by the id pools
+        Recipe warmUp = recipeRepository.save(createEntity(em));
+        ingredientRepository.save(IngredientResourceIT.createEntity(em).recipe(warmUp));
+        em.flush();
+
+        Statistics statistics = startStatistics();
+        Recipe other = recipeRepository.save(createEntity(em));
+        for (int i = 0; i < 20; i++) {
+            ingredientRepository.save(IngredientResourceIT.createEntity(em).recipe(other));
+        }
+        em.flush();
+
+        // one statement for the recipe, one batched statement for its 20 ingredients
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(21);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    public void getAllRecipesWithAuthorViewUsesConstantStatementCount() throws Exception {
+        // Initialize the database with recipes having an author
+        for (int i = 0; i < 5; i++) {
+            Author author = AuthorResourceIT.createEntity(em);
+            em.persist(author);
+            em.persist(createEntity(em).author(author));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = startStatistics();
+        restRecipeMockMvc.perform(get("/api/recipes?sort=id,desc&size=5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].author.id").isNotEmpty());
+
+        // the page of recipes joined with their author, then the count
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeWithFullViewUsesSingleStatement() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        recipe.setAuthor(author);
+        em.persist(recipe);
+        em.persist(IngredientResourceIT.createEntity(em).recipe(recipe));
+        em.persist(IngredientResourceIT.createEntity(em).recipe(recipe));
+        em.flush();
+        em.clear();
+
+        Statistics statistics = startStatistics();
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=full", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.author.id").value(author.getId().intValue()))
+            .andExpect(jsonPath("$.ingredients.length()").value(2));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeWithSummaryViewDoesNotLoadAuthor() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        recipe.setAuthor(author);
+        em.persist(recipe);
+        em.flush();
+        em.clear();
+
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=summary", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.author").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeWithUnknownView() throws Exception {
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=everything", Long.MAX_VALUE))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllRecipesWithCursorOnTitle() throws Exception {
+        // Initialize the database, with a recipe without title and two recipes sharing the same title
+        Recipe untitled = createEntity(em).title(null);
+        Recipe first = createEntity(em).title("Keyset A");
+        Recipe second = createEntity(em).title("Keyset B");
+        Recipe third = createEntity(em).title("Keyset B");
+        Recipe fourth = createEntity(em).title("Keyset C");
+        for (Recipe other : new Recipe[] {untitled, first, second, third, fourth}) {
+            em.persist(other);
+        }
+        em.flush();
+
+        List<Long> ascending = getAllRecipeIdsFollowingCursors("/api/recipes?after=&size=2&sort=title,asc");
+        assertThat(ascending).containsSubsequence(untitled.getId(), first.getId(), second.getId(), third.getId(), fourth.getId());
+
+        List<Long> descending = getAllRecipeIdsFollowingCursors("/api/recipes?after=&size=2&sort=title,desc");
+        assertThat(descending).containsSubsequence(fourth.getId(), third.getId(), second.getId(), first.getId(), untitled.getId());
+    }
+
+    @Test
+    @Transactional
+    public void getAllRecipesWithCursorOnId() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 5; i++) {
+            em.persist(createEntity(em));
+        }
+        em.flush();
+
+        List<Long> ids = getAllRecipeIdsFollowingCursors("/api/recipes?after=&size=2&sort=id,desc");
+        assertThat(ids).hasSizeGreaterThanOrEqualTo(5).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    @Transactional
+    public void getAllRecipesWithInvalidCursor() throws Exception {
+        restRecipeMockMvc.perform(get("/api/recipes?after=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        restRecipeMockMvc.perform(get("/api/recipes?after=&sort=description,asc"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportRecipes() throws Exception {
+        // Initialize the database with more recipes than the export batch size
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Recipe other = createEntity(em).author(author);
+            em.persist(other);
+            Ingredient ingredient = IngredientResourceIT.createEntity(em);
+            other.addIngredients(ingredient);
+            em.persist(ingredient);
+            ids.add(other.getId());
+        }
+        em.flush();
+        em.clear();
+        int batchSize = applicationProperties.getExport().getBatchSize();
+        applicationProperties.getExport().setBatchSize(2);
+
+        String body;
+        try {
+            body = restRecipeMockMvc.perform(get("/api/recipes/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        } finally {
+            applicationProperties.getExport().setBatchSize(batchSize);
+        }
+
+        String[] lines = body.split("\n");
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : lines) {
+            Recipe exported = objectMapper.readValue(line, Recipe.class);
+            exportedIds.add(exported.getId());
+            if (ids.contains(exported.getId())) {
+                assertThat(exported.getAuthor().getId()).isEqualTo(author.getId());
+                assertThat(exported.getIngredients()).hasSize(1);
+            }
+        }
+        assertThat(body).endsWith("\n");
+        assertThat(exportedIds).containsAll(ids).isSorted();
+    }
+
+    @Test
+    @Transactional
+    public void exportRecipesIsForbiddenForUsers() throws Exception {
+        restRecipeMockMvc.perform(get("/api/recipes/export"))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importRecipesFromNdjson() throws Exception {
+        // Initialize the database with an author that the import should reuse
+        Author author = AuthorResourceIT.createEntity(em).name("Imported author");
+        em.persist(author);
+        em.flush();
+        int batchSize = applicationProperties.getBulkImport().getBatchSize();
+        applicationProperties.getBulkImport().setBatchSize(2);
+
+        String records = "{\"title\":\"Imported 1\",\"author\":{\"name\":\"Imported author\"}," +
+            "\"ingredients\":[{\"name\":\"Flour\",\"quantity\":200,\"unit\":\"g\"},{\"name\":\"Milk\"}]}\n" +
+            "{not json\n" +
+            "\n" +
+            "{\"title\":\"Imported 2\",\"author\":{\"name\":\"New imported author\"}}\n" +
+            "{\"description\":\"No title\"}\n" +
+            "{\"title\":\"Imported 3\",\"author\":{\"name\":\"New imported author\"}}\n";
+        String body;
+        try {
+            body = restRecipeMockMvc.perform(post("/api/recipes/import")
+                .contentType("application/x-ndjson")
+                .content(records))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        } finally {
+            applicationProperties.getBulkImport().setBatchSize(batchSize);
+        }
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(com.jayway.jsonpath.JsonPath.<List<String>>read(lines[0], "$.rejections")).hasSize(1);
+        assertThat(com.jayway.jsonpath.JsonPath.<String>read(lines[3], "$.status")).isEqualTo("COMPLETED");
+        assertThat(com.jayway.jsonpath.JsonPath.<Integer>read(lines[3], "$.position")).isEqualTo(5);
+        assertThat(com.jayway.jsonpath.JsonPath.<Integer>read(lines[3], "$.imported")).isEqualTo(3);
+        assertThat(com.jayway.jsonpath.JsonPath.<Integer>read(lines[3], "$.rejected")).isEqualTo(2);
+
+        List<Recipe> imported = findRecipesByTitlePrefix("Imported ");
+        assertThat(imported).extracting(Recipe::getTitle).containsExactlyInAnyOrder("Imported 1", "Imported 2", "Imported 3");
+        assertThat(imported).filteredOn(r -> r.getTitle().equals("Imported 1"))
+            .allSatisfy(r -> assertThat(r.getAuthor().getId()).isEqualTo(author.getId()))
+            .allSatisfy(r -> assertThat(r.getIngredients()).extracting(Ingredient::getName).containsExactlyInAnyOrder("Flour", "Milk"));
+        assertThat(authorRepository.findByNameIn(Collections.singleton("New imported author"))).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importRecipesWithVersions() throws Exception {
+        // Records of the export carry the id and version of the exported rows, which must not be taken for existing rows
+        String records = "{\"id\":1,\"version\":3,\"title\":\"Imported 1\"," +
+            "\"author\":{\"id\":1,\"version\":2,\"name\":\"Versioned imported author\"}," +
+            "\"ingredients\":[{\"id\":1,\"version\":5,\"name\":\"Flour\"}]}\n";
+
+        restRecipeMockMvc.perform(post("/api/recipes/import")
+            .contentType("application/x-ndjson")
+            .content(records))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"status\":\"COMPLETED\"")))
+            .andExpect(content().string(containsString("\"imported\":1")));
+
+        List<Recipe> imported = findRecipesByTitlePrefix("Imported ");
+        assertThat(imported).hasSize(1);
+        assertThat(imported.get(0).getVersion()).isZero();
+        assertThat(imported.get(0).getAuthor().getName()).isEqualTo("Versioned imported author");
+        assertThat(imported.get(0).getAuthor().getVersion()).isZero();
+        assertThat(imported.get(0).getIngredients()).extracting(Ingredient::getVersion).containsExactly(0);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importRecipesFromCsvSkippingRecords() throws Exception {
+        String records = "description,title,author,ingredients\r\n" +
+            "First,Imported 1,Imported author,Eggs:2\r\n" +
+            "\"Second, with \"\"quotes\"\"\",Imported 2,Imported author,\"Flour:200:g;Salt\"\r\n";
+
+        restRecipeMockMvc.perform(post("/api/recipes/import?skip=1")
+            .contentType("text/csv")
+            .content(records))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"imported\":1")));
+
+        List<Recipe> imported = findRecipesByTitlePrefix("Imported ");
+        assertThat(imported).hasSize(1);
+        assertThat(imported.get(0).getDescription()).isEqualTo("Second, with \"quotes\"");
+        assertThat(imported.get(0).getAuthor().getName()).isEqualTo("Imported author");
+        assertThat(imported.get(0).getIngredients()).extracting(Ingredient::getName).containsExactlyInAnyOrder("Flour", "Salt");
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importRecipesFromCsvWithoutTitleColumn() throws Exception {
+        restRecipeMockMvc.perform(post("/api/recipes/import")
+            .contentType("text/csv")
+            .content("name,description\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void importRecipesIsForbiddenForUsers() throws Exception {
+        restRecipeMockMvc.perform(post("/api/recipes/import")
+            .contentType("application/x-ndjson")
+            .content("{\"title\":\"Imported 1\"}\n"))
+            .andExpect(status().isForbidden());
+    }
+
+    private void deleteRecipeWithIngredients(Long id) {
+        List<Ingredient> ingredients;
+        while (!(ingredients = ingredientService.findAll(null, id, null, null, 20).getContent()).isEmpty()) {
+            ingredients.forEach(ingredient -> ingredientService.delete(ingredient.getId()));
+        }
+        recipeService.delete(id);
+    }
+
+    private List<Recipe> findRecipesByTitlePrefix(String prefix) {
+        return em.createQuery("select distinct r from Recipe r left join fetch r.author left join fetch r.ingredients " +
+            "where r.title like :prefix", Recipe.class)
+            .setParameter("prefix", prefix + "%")
+            .getResultList();
+    }
+
+    /**
+     * Read every page of recipes, following the {@code next} links, and return the ids in the order they were read.
+     */
+    private List<Long> getAllRecipeIdsFollowingCursors(String url) throws Exception {
+        Pattern next = Pattern.compile("<(.+)>; rel=\"next\"");
+        List<Long> ids = new ArrayList<>();
+        while (url != null) {
+            MvcResult result = restRecipeMockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn();
+            List<Number> page = com.jayway.jsonpath.JsonPath.read(result.getResponse().getContentAsString(), "$.[*].id");
+            page.forEach(id -> ids.add(id.longValue()));
+            String link = result.getResponse().getHeader("Link");
+            Matcher matcher = link == null ? null : next.matcher(link);
+            url = matcher != null && matcher.find() ? matcher.group(1) : null;
+        }
+        return ids;
+    }
+
+    private Statistics startStatistics() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    public void searchRecipes() throws Exception {
+        // Initialize the database, outside of a transaction so that the search index is updated on commit
+        recipe.setTitle("Saffron risotto");
+        recipeService.save(recipe);
+
+        try {
+            restRecipeMockMvc.perform(get("/api/recipes/_search?q=risottos"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(recipe.getId().intValue())))
+                .andExpect(jsonPath("$.[*].title").value(hasItem("Saffron risotto")));
+        } finally {
+            recipeService.delete(recipe.getId());
+        }
+
+        restRecipeMockMvc.perform(get("/api/recipes/_search?q=risotto"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    public void getRecipesByIngredients() throws Exception {
+        // Initialize the database, outside of a transaction so that the coverage index is updated on commit
+        recipeService.save(recipe);
+        Ingredient saffron = ingredientService.save(new Ingredient().name("Saffron threads").recipe(recipe));
+        Ingredient rice = ingredientService.save(new Ingredient().name("Arborio rice").recipe(recipe));
+
+        try {
+            restRecipeMockMvc.perform(get("/api/recipes/_by-ingredients?ingredients=saffron thread,arborio rice"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(recipe.getId().intValue())));
+        } finally {
+            ingredientService.delete(saffron.getId());
+            ingredientService.delete(rice.getId());
+            recipeService.delete(recipe.getId());
+        }
+
+        restRecipeMockMvc.perform(get("/api/recipes/_by-ingredients?ingredients=arborio rice"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
     @Test
     @Transactional
     public void getRecipe() throws Exception {
@@ -163,6 +610,128 @@ public class RecipeResourceIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getRecipeWithMatchingEntityTag() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        String eTag = restRecipeMockMvc.perform(get("/api/recipes/{id}", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        restRecipeMockMvc.perform(get("/api/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // Another view has another entity tag
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=summary", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+
+        // The entity tag changes with the recipe
+        recipe.setTitle(UPDATED_TITLE);
+        recipeRepository.saveAndFlush(recipe);
+        restRecipeMockMvc.perform(get("/api/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeNotModifiedSince() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        String lastModified = restRecipeMockMvc.perform(get("/api/recipes/{id}?view=summary", recipe.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=summary", recipe.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeWithFullViewEntityTagChangesWithIngredients() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        String eTag = restRecipeMockMvc.perform(get("/api/recipes/{id}?view=full", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Ingredient ingredient = ingredientRepository.saveAndFlush(IngredientResourceIT.createEntity(em).recipe(recipe));
+        recipe.addIngredients(ingredient);
+        restRecipeMockMvc.perform(get("/api/recipes/{id}?view=full", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ingredients.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeWithMatchingEntityTag() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        String eTag = restRecipeMockMvc.perform(get("/api/recipes/{id}?view=summary", recipe.getId()))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Recipe updatedRecipe = new Recipe().title(UPDATED_TITLE).image(UPDATED_IMAGE).description(UPDATED_DESCRIPTION);
+        updatedRecipe.setId(recipe.getId());
+        restRecipeMockMvc.perform(put("/api/recipes")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedRecipe)))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG));
+        em.flush();
+
+        // The recipe was changed since the entity tag was read
+        restRecipeMockMvc.perform(put("/api/recipes")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedRecipe)))
+            .andExpect(status().isPreconditionFailed());
+        assertThat(recipeRepository.findById(recipe.getId()).get().getTitle()).isEqualTo(UPDATED_TITLE);
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeReturnsTheEntityTagOfTheDefaultView() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        Recipe updatedRecipe = new Recipe().title(UPDATED_TITLE).image(UPDATED_IMAGE).description(UPDATED_DESCRIPTION);
+        updatedRecipe.setId(recipe.getId());
+        String eTag = restRecipeMockMvc.perform(put("/api/recipes")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(updatedRecipe)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        em.flush();
+
+        restRecipeMockMvc.perform(get("/api/recipes/{id}", recipe.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        restRecipeMockMvc.perform(get("/api/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeWithIngredientsWithStaleEntityTag() throws Exception {
+        // Initialize the database
+        recipeRepository.saveAndFlush(recipe);
+
+        restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+            .header(HttpHeaders.IF_MATCH, "\"stale\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(new Recipe().title(UPDATED_TITLE))))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     public void updateRecipe() throws Exception {
@@ -192,6 +761,128 @@ public class RecipeResourceIT {
         assertThat(testRecipe.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testRecipe.getImage()).isEqualTo(UPDATED_IMAGE);
         assertThat(testRecipe.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+        assertThat(testRecipe.getUuid()).isEqualTo(updatedRecipe.getUuid());
+    }
+
+    @Test
+    public void updateRecipeWithIngredients() throws Exception {
+        // Initialize the database, outside of a transaction so that versions are incremented on commit
+        recipeService.save(recipe);
+        Ingredient kept = ingredientService.save(new Ingredient().name("Butter").quantity(100).unit("g").recipe(recipe));
+        Ingredient updated = ingredientService.save(new Ingredient().name("Sugar").quantity(50).unit("g").recipe(recipe));
+        Ingredient removed = ingredientService.save(new Ingredient().name("Salt").recipe(recipe));
+
+        try {
+            Recipe submitted = new Recipe().title(UPDATED_TITLE).image(DEFAULT_IMAGE).description(DEFAULT_DESCRIPTION);
+            submitted.setVersion(0);
+            Ingredient keptButter = new Ingredient().name("Butter").quantity(100).unit("g");
+            keptButter.setId(kept.getId());
+            submitted.getIngredients().add(keptButter);
+            Ingredient updatedSugar = new Ingredient().name("Sugar").quantity(75).unit("g");
+            updatedSugar.setId(updated.getId());
+            submitted.getIngredients().add(updatedSugar);
+            submitted.getIngredients().add(new Ingredient().name("Nutmeg"));
+            submitted.getIngredients().add(new Ingredient().name("Flour").quantity(200).unit("g"));
+
+            restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(submitted)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.ingredients.length()").value(4));
+
+            // Validate the Recipe and its ingredients in the database
+            Recipe testRecipe = recipeRepository.findFullById(recipe.getId()).get();
+            assertThat(testRecipe.getTitle()).isEqualTo(UPDATED_TITLE);
+            assertThat(testRecipe.getVersion()).isEqualTo(1);
+            assertThat(testRecipe.getIngredients()).extracting(Ingredient::getName)
+                .containsExactlyInAnyOrder("Butter", "Sugar", "Nutmeg", "Flour");
+            assertThat(testRecipe.getIngredients()).filteredOn(i -> i.getId().equals(updated.getId()))
+                .extracting(Ingredient::getQuantity).containsExactly(75);
+            assertThat(ingredientRepository.findById(removed.getId())).isEmpty();
+            restRecipeMockMvc.perform(get("/api/recipes/_by-ingredients?ingredients=nutmeg"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(recipe.getId().intValue())));
+
+            // A change of ingredients only increments the version too
+            Recipe resubmitted = new Recipe().title(UPDATED_TITLE).image(DEFAULT_IMAGE).description(DEFAULT_DESCRIPTION);
+            resubmitted.setVersion(1);
+            for (Ingredient ingredient : testRecipe.getIngredients()) {
+                Ingredient copy = new Ingredient().name(ingredient.getName()).quantity(ingredient.getQuantity()).unit(ingredient.getUnit());
+                copy.setId(ingredient.getId());
+                if (ingredient.getId().equals(updated.getId())) {
+                    copy.setQuantity(80);
+                }
+                resubmitted.getIngredients().add(copy);
+            }
+            restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(resubmitted)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.ingredients.length()").value(4));
+        } finally {
+            deleteRecipeWithIngredients(recipe.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeWithIngredientsWithStaleVersion() throws Exception {
+        // Initialize the database
+        recipeService.save(recipe);
+        em.flush();
+
+        Recipe submitted = new Recipe().title(UPDATED_TITLE);
+        submitted.setVersion(recipe.getVersion() + 1);
+        restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(submitted)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeWithIngredientsOfAnotherRecipe() throws Exception {
+        // Initialize the database
+        recipeService.save(recipe);
+        Recipe other = recipeService.save(createEntity(em));
+        Ingredient ingredient = ingredientService.save(IngredientResourceIT.createEntity(em).recipe(other));
+        em.flush();
+
+        Recipe submitted = new Recipe().title(UPDATED_TITLE);
+        submitted.setVersion(recipe.getVersion());
+        Ingredient foreign = new Ingredient().name(ingredient.getName());
+        foreign.setId(ingredient.getId());
+        submitted.getIngredients().add(foreign);
+        restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(submitted)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeWithIngredientsWithoutVersion() throws Exception {
+        // Initialize the database
+        recipeService.save(recipe);
+        em.flush();
+
+        restRecipeMockMvc.perform(put("/api/recipes/{id}/full", recipe.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(new Recipe().title(UPDATED_TITLE))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void updateNonExistingRecipeWithIngredients() throws Exception {
+        Recipe submitted = new Recipe().title(UPDATED_TITLE);
+        submitted.setVersion(0);
+        restRecipeMockMvc.perform(put("/api/recipes/{id}/full", Long.MAX_VALUE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(submitted)))
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -11,6 +11,8 @@ import reducer, {
   deleteEntity,
   getEntities,
   getEntity,
+  getNextEntities,
+  searchEntities,
   updateEntity,
   reset,
 } from 'app/entities/author/author.reducer';
@@ -30,6 +32,7 @@ describe('Entities reducer tests', () => {
     loading: false,
     errorMessage: null,
     entities: [] as ReadonlyArray<IAuthor>,
+    next: null,
     entity: defaultValue,
     updating: false,
     updateSuccess: false,
@@ -60,13 +63,17 @@ describe('Entities reducer tests', () => {
 
   describe('Requests', () => {
     it('should set state to loading', () => {
-      testMultipleTypes([REQUEST(ACTION_TYPES.FETCH_AUTHOR_LIST), REQUEST(ACTION_TYPES.FETCH_AUTHOR)], {}, state => {
-        expect(state).toMatchObject({
-          errorMessage: null,
-          updateSuccess: false,
-          loading: true,
-        });
-      });
+      testMultipleTypes(
+        [REQUEST(ACTION_TYPES.FETCH_AUTHOR_LIST), REQUEST(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE), REQUEST(ACTION_TYPES.FETCH_AUTHOR)],
+        {},
+        state => {
+          expect(state).toMatchObject({
+            errorMessage: null,
+            updateSuccess: false,
+            loading: true,
+          });
+        }
+      );
     });
 
     it('should set state to updating', () => {
@@ -102,6 +109,7 @@ describe('Entities reducer tests', () => {
       testMultipleTypes(
         [
           FAILURE(ACTION_TYPES.FETCH_AUTHOR_LIST),
+          FAILURE(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE),
           FAILURE(ACTION_TYPES.FETCH_AUTHOR),
           FAILURE(ACTION_TYPES.CREATE_AUTHOR),
           FAILURE(ACTION_TYPES.UPDATE_AUTHOR),
@@ -134,6 +142,42 @@ describe('Entities reducer tests', () => {
       });
     });
 
+    it('should keep the url of the next page', () => {
+      const payload = {
+        data: [{ 1: 'fake1' }],
+        headers: { link: '<http://localhost/api/authors?after=1&size=20>; rel="next"' },
+      };
+      expect(
+        reducer(undefined, {
+          type: SUCCESS(ACTION_TYPES.FETCH_AUTHOR_LIST),
+          payload,
+        })
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: payload.data,
+        next: 'api/authors?after=1&size=20',
+      });
+    });
+
+    it('should append the next page to the entities', () => {
+      const payload = { data: [{ 2: 'fake2' }], headers: {} };
+      expect(
+        reducer(
+          { ...initialState, entities: [{ 1: 'fake1' }], next: 'api/authors?after=1&size=20' },
+          {
+            type: SUCCESS(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE),
+            payload,
+          }
+        )
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: [{ 1: 'fake1' }, { 2: 'fake2' }],
+        next: null,
+      });
+    });
+
     it('should fetch a single entity', () => {
       const payload = { data: { 1: 'fake1' } };
       expect(
@@ -202,6 +246,41 @@ describe('Entities reducer tests', () => {
       await store.dispatch(getEntities()).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
 
+    it('fetches the first page of the entities', async () => {
+      await store.dispatch(getEntities());
+      expect((axios.get as sinon.SinonStub).getCall(0).args[0]).toMatch(/^api\/authors\?size=20&/);
+    });
+
+    it('dispatches ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE actions', async () => {
+      const expectedActions = [
+        {
+          type: REQUEST(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE),
+        },
+        {
+          type: SUCCESS(ACTION_TYPES.FETCH_AUTHOR_NEXT_PAGE),
+          payload: resolvedObject,
+        },
+      ];
+      await store
+        .dispatch(getNextEntities('api/authors?after=1&size=20'))
+        .then(() => expect(store.getActions()).toEqual(expectedActions));
+      expect((axios.get as sinon.SinonStub).getCall(0).args[0]).toEqual('api/authors?after=1&size=20');
+    });
+
+    it('searches the authors by the beginning of their name', async () => {
+      const expectedActions = [
+        {
+          type: REQUEST(ACTION_TYPES.FETCH_AUTHOR_LIST),
+        },
+        {
+          type: SUCCESS(ACTION_TYPES.FETCH_AUTHOR_LIST),
+          payload: resolvedObject,
+        },
+      ];
+      await store.dispatch(searchEntities('Jo hn', 100)).then(() => expect(store.getActions()).toEqual(expectedActions));
+      expect((axios.get as sinon.SinonStub).getCall(0).args[0]).toMatch(/^api\/authors\?name=Jo%20hn&size=100&/);
+    });
+
     it('dispatches ACTION_TYPES.FETCH_AUTHOR actions', async () => {
       const expectedActions = [
         {
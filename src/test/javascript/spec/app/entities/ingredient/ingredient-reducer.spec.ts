@@ -11,6 +11,7 @@ import reducer, {
   deleteEntity,
   getEntities,
   getEntity,
+  getNextEntities,
   updateEntity,
   reset,
 } from 'app/entities/ingredient/ingredient.reducer';
@@ -30,6 +31,7 @@ describe('Entities reducer tests', () => {
     loading: false,
     errorMessage: null,
     entities: [] as ReadonlyArray<IIngredient>,
+    next: null,
     entity: defaultValue,
     updating: false,
     updateSuccess: false,
@@ -60,13 +62,17 @@ describe('Entities reducer tests', () => {
 
   describe('Requests', () => {
     it('should set state to loading', () => {
-      testMultipleTypes([REQUEST(ACTION_TYPES.FETCH_INGREDIENT_LIST), REQUEST(ACTION_TYPES.FETCH_INGREDIENT)], {}, state => {
-        expect(state).toMatchObject({
-          errorMessage: null,
-          updateSuccess: false,
-          loading: true,
-        });
-      });
+      testMultipleTypes(
+        [REQUEST(ACTION_TYPES.FETCH_INGREDIENT_LIST), REQUEST(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE), REQUEST(ACTION_TYPES.FETCH_INGREDIENT)],
+        {},
+        state => {
+          expect(state).toMatchObject({
+            errorMessage: null,
+            updateSuccess: false,
+            loading: true,
+          });
+        }
+      );
     });
 
     it('should set state to updating', () => {
@@ -102,6 +108,7 @@ describe('Entities reducer tests', () => {
       testMultipleTypes(
         [
           FAILURE(ACTION_TYPES.FETCH_INGREDIENT_LIST),
+          FAILURE(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE),
           FAILURE(ACTION_TYPES.FETCH_INGREDIENT),
           FAILURE(ACTION_TYPES.CREATE_INGREDIENT),
           FAILURE(ACTION_TYPES.UPDATE_INGREDIENT),
@@ -134,6 +141,42 @@ describe('Entities reducer tests', () => {
       });
     });
 
+    it('should keep the url of the next page', () => {
+      const payload = {
+        data: [{ 1: 'fake1' }],
+        headers: { link: '<http://localhost/api/ingredients?after=1&size=20>; rel="next"' },
+      };
+      expect(
+        reducer(undefined, {
+          type: SUCCESS(ACTION_TYPES.FETCH_INGREDIENT_LIST),
+          payload,
+        })
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: payload.data,
+        next: 'api/ingredients?after=1&size=20',
+      });
+    });
+
+    it('should append the next page to the entities', () => {
+      const payload = { data: [{ 2: 'fake2' }], headers: {} };
+      expect(
+        reducer(
+          { ...initialState, entities: [{ 1: 'fake1' }], next: 'api/ingredients?after=1&size=20' },
+          {
+            type: SUCCESS(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE),
+            payload,
+          }
+        )
+      ).toEqual({
+        ...initialState,
+        loading: false,
+        entities: [{ 1: 'fake1' }, { 2: 'fake2' }],
+        next: null,
+      });
+    });
+
     it('should fetch a single entity', () => {
       const payload = { data: { 1: 'fake1' } };
       expect(
@@ -202,6 +245,27 @@ describe('Entities reducer tests', () => {
       await store.dispatch(getEntities()).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
 
+    it('fetches the first page of the entities', async () => {
+      await store.dispatch(getEntities());
+      expect((axios.get as sinon.SinonStub).getCall(0).args[0]).toMatch(/^api\/ingredients\?size=20&/);
+    });
+
+    it('dispatches ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE actions', async () => {
+      const expectedActions = [
+        {
+          type: REQUEST(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE),
+        },
+        {
+          type: SUCCESS(ACTION_TYPES.FETCH_INGREDIENT_NEXT_PAGE),
+          payload: resolvedObject,
+        },
+      ];
+      await store
+        .dispatch(getNextEntities('api/ingredients?after=1&size=20'))
+        .then(() => expect(store.getActions()).toEqual(expectedActions));
+      expect((axios.get as sinon.SinonStub).getCall(0).args[0]).toEqual('api/ingredients?after=1&size=20');
+    });
+
     it('dispatches ACTION_TYPES.FETCH_INGREDIENT actions', async () => {
       const expectedActions = [
         {
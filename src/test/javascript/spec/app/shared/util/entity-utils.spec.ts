@@ -1,4 +1,4 @@
-import { cleanEntity, mapIdList } from 'app/shared/util/entity-utils';
+import { cleanEntity, getNextPageUrl, mapIdList } from 'app/shared/util/entity-utils';
 
 describe('Entity utils', () => {
   describe('cleanEntity', () => {
@@ -53,4 +53,17 @@ describe('Entity utils', () => {
       expect(mapIdList(ids)).toEqual([]);
     });
   });
+
+  describe('getNextPageUrl', () => {
+    it('should return the url of the next page, relative to the application', () => {
+      const headers = { link: '<http://localhost/api/authors?after=42&size=20>; rel="next"' };
+
+      expect(getNextPageUrl(headers)).toEqual('api/authors?after=42&size=20');
+    });
+
+    it('should return null on the last page', () => {
+      expect(getNextPageUrl({})).toBeNull();
+      expect(getNextPageUrl(undefined)).toBeNull();
+    });
+  });
 });